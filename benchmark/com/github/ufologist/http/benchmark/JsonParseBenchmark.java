@@ -0,0 +1,62 @@
+package com.github.ufologist.http.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONArray;
+import org.json.JSONKeyPool;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * new JSONObject(String) / new JSONArray(String) 的解析性能
+ * 
+ * @author Sun
+ * @version JsonParseBenchmark.java 2026-10-18
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonParseBenchmark {
+    @Param({Payloads.SMALL, Payloads.MEDIUM, Payloads.LARGE})
+    public String size;
+
+    private String object;
+    private String array;
+
+    @Setup
+    public void setup() {
+        this.object = Payloads.object(this.size);
+        this.array = Payloads.array(this.size);
+    }
+
+    @Benchmark
+    public JSONObject parseObject() {
+        return new JSONObject(this.object);
+    }
+
+    @Benchmark
+    public JSONArray parseArray() {
+        return new JSONArray(this.array);
+    }
+
+    @Benchmark
+    public JSONArray parseArrayPooledKeys() {
+        JSONTokener x = new JSONTokener(this.array);
+        x.setKeyPool(JSONKeyPool.DEFAULT);
+        return new JSONArray(x);
+    }
+}
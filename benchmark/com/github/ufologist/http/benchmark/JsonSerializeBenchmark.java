@@ -0,0 +1,77 @@
+package com.github.ufologist.http.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONByteWriter;
+import org.json.JSONObject;
+import org.json.JSONTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.alibaba.fastjson.JSON;
+
+/**
+ * JSONObject.toString() / toString(4) / JSONByteWriter / JSONTemplate 的序列化性能, 以及与fastjson的对比
+ * 
+ * @author Sun
+ * @version JsonSerializeBenchmark.java 2026-10-18
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializeBenchmark {
+    @Param({Payloads.SMALL, Payloads.MEDIUM, Payloads.LARGE})
+    public String size;
+
+    private JSONObject orgJson;
+    private JSONTemplate template;
+    private com.alibaba.fastjson.JSONObject fastjson;
+    private final JSONByteWriter byteWriter = new JSONByteWriter();
+
+    @Setup
+    public void setup() {
+        String text = Payloads.object(this.size);
+        this.orgJson = new JSONObject(text);
+        this.template = JSONTemplate.of(this.orgJson);
+        this.fastjson = JSON.parseObject(text);
+    }
+
+    @Benchmark
+    public String orgJsonToString() {
+        return this.orgJson.toString();
+    }
+
+    @Benchmark
+    public String orgJsonToStringIndent() {
+        return this.orgJson.toString(4);
+    }
+
+    @Benchmark
+    public int orgJsonToUTF8Bytes() {
+        this.byteWriter.reset();
+        return this.byteWriter.value(this.orgJson).size();
+    }
+
+    @Benchmark
+    public int orgJsonTemplateToUTF8Bytes() {
+        this.byteWriter.reset();
+        return this.template.write(this.byteWriter, this.orgJson).size();
+    }
+
+    @Benchmark
+    public String fastjsonToJSONString() {
+        return JSON.toJSONString(this.fastjson);
+    }
+}
@@ -0,0 +1,66 @@
+package com.github.ufologist.http.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 纯数值JSONArray(long[]/double[]存储)的解析, 读取和序列化性能
+ * 
+ * @author Sun
+ * @version NumericArrayBenchmark.java 2026-10-18
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NumericArrayBenchmark {
+    @Param({Payloads.SMALL, Payloads.MEDIUM, Payloads.LARGE})
+    public String size;
+
+    private String text;
+    private JSONArray array;
+
+    @Setup
+    public void setup() {
+        this.text = Payloads.numbers(this.size);
+        this.array = new JSONArray(this.text);
+    }
+
+    @Benchmark
+    public JSONArray parse() {
+        return new JSONArray(this.text);
+    }
+
+    @Benchmark
+    public double sumGetDouble() {
+        double sum = 0;
+        for (int i = 0, length = this.array.length(); i < length; i++) {
+            sum += this.array.getDouble(i);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double[] toDoubleArray() {
+        return this.array.toDoubleArray();
+    }
+
+    @Benchmark
+    public String serialize() {
+        return this.array.toString();
+    }
+}
@@ -0,0 +1,122 @@
+package com.github.ufologist.http.benchmark;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * 生成基准测试用的JSON数据, 每次生成的内容都是一样的
+ * 
+ * @author Sun
+ * @version Payloads.java 2026-10-18
+ */
+public class Payloads {
+    public static final String SMALL = "small";
+    public static final String MEDIUM = "medium";
+    public static final String LARGE = "large";
+
+    private static final String ASCII_TEXT = "The quick brown fox jumps over the lazy dog, 0123456789 </script>";
+    private static final String CJK_TEXT = "中文属性值测试, 天气预报: 北京 晴转多云 微风 \"引号\" 路径/分隔";
+
+    /**
+     * @param size SMALL(1个对象), MEDIUM(100个对象), LARGE(10000个对象)
+     * @return 包含items数组的JSON文本
+     */
+    public static String object(String size) {
+        return newObject(count(size)).toString();
+    }
+
+    /**
+     * @param size SMALL(1个对象), MEDIUM(100个对象), LARGE(10000个对象)
+     * @return 顶层为数组的JSON文本
+     */
+    public static String array(String size) {
+        return newArray(count(size)).toString();
+    }
+
+    /**
+     * @param size SMALL(10个数), MEDIUM(1000个数), LARGE(100000个数)
+     * @return 整数和小数混合的数值数组, 类似监控接口返回的时间序列
+     */
+    public static String numbers(String size) {
+        int count = count(size) * 10;
+        StringBuilder sb = new StringBuilder(count * 12);
+        sb.append('[');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            if (i % 4 == 0) {
+                sb.append(i);
+            } else {
+                sb.append(i * 0.37 + 0.5);
+            }
+        }
+        sb.append(']');
+        return sb.toString();
+    }
+
+    public static JSONObject newObject(int count) {
+        JSONObject json = new JSONObject();
+        json.put("code", 0);
+        json.put("message", "ok");
+        json.put("total", count);
+        json.put("items", newArray(count));
+        return json;
+    }
+
+    public static JSONArray newArray(int count) {
+        JSONArray items = new JSONArray();
+        for (int i = 0; i < count; i++) {
+            items.put(newItem(i));
+        }
+        return items;
+    }
+
+    public static JSONObject newItem(int i) {
+        JSONObject item = new JSONObject();
+        item.put("id", i);
+        item.put("uid", 10000000000L + i);
+        item.put("name", "item-" + i);
+        item.put("title", i % 2 == 0 ? ASCII_TEXT : CJK_TEXT);
+        item.put("price", i * 1.25);
+        item.put("enabled", i % 3 != 0);
+        item.put("tags", new JSONArray().put("a").put("b").put("c"));
+        item.put("location", new JSONObject().put("lat", 39.9042 + i / 1000.0).put("lng", 116.4074));
+        item.put("remark", JSONObject.NULL);
+        return item;
+    }
+
+    /**
+     * @param length 字符数
+     */
+    public static String asciiText(int length) {
+        return repeat(ASCII_TEXT, length);
+    }
+
+    /**
+     * @param length 字符数
+     */
+    public static String cjkText(int length) {
+        return repeat(CJK_TEXT, length);
+    }
+
+    private static String repeat(String text, int length) {
+        StringBuilder sb = new StringBuilder(length + text.length());
+        while (sb.length() < length) {
+            sb.append(text);
+        }
+        sb.setLength(length);
+        return sb.toString();
+    }
+
+    private static int count(String size) {
+        if (SMALL.equals(size)) {
+            return 1;
+        } else if (MEDIUM.equals(size)) {
+            return 100;
+        } else if (LARGE.equals(size)) {
+            return 10000;
+        }
+        throw new IllegalArgumentException("Unknown payload size: " + size);
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.ufologist.http.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JSONObject.quote 对ASCII和中文为主的字符串的转义性能
+ * 
+ * @author Sun
+ * @version QuoteBenchmark.java 2026-10-18
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QuoteBenchmark {
+    @Param({"16", "256", "4096"})
+    public int length;
+
+    private String ascii;
+    private String cjk;
+
+    @Setup
+    public void setup() {
+        this.ascii = Payloads.asciiText(this.length);
+        this.cjk = Payloads.cjkText(this.length);
+    }
+
+    @Benchmark
+    public String quoteAscii() {
+        return JSONObject.quote(this.ascii);
+    }
+
+    @Benchmark
+    public String quoteCjk() {
+        return JSONObject.quote(this.cjk);
+    }
+}
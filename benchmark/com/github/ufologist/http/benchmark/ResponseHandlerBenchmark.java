@@ -0,0 +1,99 @@
+package com.github.ufologist.http.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.http.Consts;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.message.BasicHttpResponse;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.ufologist.http.GzipResponseHandler;
+import com.github.ufologist.http.JsonResponseHandler;
+import com.github.ufologist.http.ProjectionJsonResponseHandler;
+
+/**
+ * JsonResponseHandler, ProjectionJsonResponseHandler和GzipResponseHandler处理内存中的response的性能
+ * 
+ * ByteArrayEntity是可以重复读取的, 因此同一个response可以反复处理
+ * 
+ * @author Sun
+ * @version ResponseHandlerBenchmark.java 2026-10-18
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseHandlerBenchmark {
+    private static final ContentType JSON_UTF_8 = ContentType.create("application/json", Consts.UTF_8);
+
+    @Param({Payloads.SMALL, Payloads.MEDIUM, Payloads.LARGE})
+    public String size;
+
+    private final JsonResponseHandler jsonResponseHandler = new JsonResponseHandler();
+    private final JsonResponseHandler streamingJsonResponseHandler = new JsonResponseHandler(true);
+    private final ProjectionJsonResponseHandler projectionJsonResponseHandler = new ProjectionJsonResponseHandler("total", "items[*].id");
+    private final GzipResponseHandler gzipResponseHandler = new GzipResponseHandler();
+
+    private BasicHttpResponse plainResponse;
+    private BasicHttpResponse gzipResponse;
+
+    @Setup
+    public void setup() throws IOException {
+        byte[] body = Payloads.object(this.size).getBytes(Consts.UTF_8.name());
+
+        this.plainResponse = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        this.plainResponse.setEntity(new ByteArrayEntity(body, JSON_UTF_8));
+
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        GZIPOutputStream out = new GZIPOutputStream(gzip);
+        out.write(body);
+        out.close();
+        ByteArrayEntity gzipEntity = new ByteArrayEntity(gzip.toByteArray(), JSON_UTF_8);
+        gzipEntity.setContentEncoding("gzip");
+        this.gzipResponse = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        this.gzipResponse.setEntity(gzipEntity);
+    }
+
+    @Benchmark
+    public JSONObject jsonResponseHandler() throws IOException {
+        return this.jsonResponseHandler.handleResponse(this.plainResponse);
+    }
+
+    @Benchmark
+    public JSONObject streamingJsonResponseHandler() throws IOException {
+        return this.streamingJsonResponseHandler.handleResponse(this.plainResponse);
+    }
+
+    @Benchmark
+    public JSONObject projectionJsonResponseHandler() throws IOException {
+        return this.projectionJsonResponseHandler.handleResponse(this.plainResponse);
+    }
+
+    @Benchmark
+    public String gzipResponseHandlerPlain() throws IOException {
+        return this.gzipResponseHandler.handleResponse(this.plainResponse);
+    }
+
+    @Benchmark
+    public String gzipResponseHandlerGzip() throws IOException {
+        return this.gzipResponseHandler.handleResponse(this.gzipResponse);
+    }
+}
@@ -0,0 +1,306 @@
+package com.github.ufologist.http;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.utils.URIUtils;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * 自适应的并发限制(AIMD), 按照每个route(scheme://host:port)分别控制同时执行的请求数
+ * 
+ * 请求成功并且响应时间没有明显变长时, 每完成limit个请求limit加1(加性增);
+ * 请求失败(IOException, 429, 503, 504)或者响应时间超过最小响应时间的latencyTolerance倍时, limit乘以backoffRatio(乘性减).
+ * 乘性减每个往返最多一次: 在上次减小limit之前就已经发出的请求, 它们的失败不会再次减小limit.
+ * 超过limit的请求会在发送前阻塞, 这样既能尽量提高吞吐量, 又不会触发目标服务器的过载保护.
+ * 
+ * 同步请求(包括Fluent API)通过wrap(CloseableHttpClient)得到的HttpClient来限制,
+ * 例如 Executor.newInstance(limiter.wrap(httpclient)) 或者 Request.setDefaultHttpClient(limiter.wrap(httpclient));
+ * 异步请求通过execute(CloseableHttpAsyncClient, HttpUriRequest, FutureCallback)来限制.
+ * 
+ * XXX 同步请求在收到response header时就算完成了, 因此读取response body的连接不计算在内.
+ * 
+ * @author Sun
+ * @version AdaptiveConcurrencyLimiter.java 2026-10-18
+ */
+public class AdaptiveConcurrencyLimiter {
+    private int initialLimit = 20;
+    private int minLimit = 1;
+    private int maxLimit = 1000;
+    private double backoffRatio = 0.9;
+    private double latencyTolerance = 2.0;
+
+    private final ConcurrentMap<HttpHost, RouteLimit> routes = new ConcurrentHashMap<HttpHost, RouteLimit>();
+
+    public static AdaptiveConcurrencyLimiter custom() {
+        return new AdaptiveConcurrencyLimiter();
+    }
+
+    public AdaptiveConcurrencyLimiter setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+        return this;
+    }
+
+    /**
+     * @param minLimit 至少为1, 否则limit降到1以下之后请求会一直阻塞
+     */
+    public AdaptiveConcurrencyLimiter setMinLimit(int minLimit) {
+        if (minLimit < 1) {
+            throw new IllegalArgumentException("minLimit must be at least 1: " + minLimit);
+        }
+        this.minLimit = minLimit;
+        return this;
+    }
+
+    public AdaptiveConcurrencyLimiter setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+        return this;
+    }
+
+    /**
+     * @param backoffRatio 出现过载时limit缩小的比例, 0到1之间
+     */
+    public AdaptiveConcurrencyLimiter setBackoffRatio(double backoffRatio) {
+        this.backoffRatio = backoffRatio;
+        return this;
+    }
+
+    /**
+     * @param latencyTolerance 响应时间超过最小响应时间的多少倍算作过载
+     */
+    public AdaptiveConcurrencyLimiter setLatencyTolerance(double latencyTolerance) {
+        this.latencyTolerance = latencyTolerance;
+        return this;
+    }
+
+    /**
+     * @return route当前的limit, 还没有请求过的route返回initialLimit
+     */
+    public int getLimit(HttpHost route) {
+        RouteLimit routeLimit = this.routes.get(route);
+        return routeLimit != null ? routeLimit.getLimit() : this.initialLimit;
+    }
+
+    /**
+     * @return route当前正在执行的请求数
+     */
+    public int getInFlight(HttpHost route) {
+        RouteLimit routeLimit = this.routes.get(route);
+        return routeLimit != null ? routeLimit.getInFlight() : 0;
+    }
+
+    /**
+     * 获得执行请求的许可, 超过limit时阻塞
+     * 
+     * @param route
+     * @return 请求完成时调用RouteLimit.release
+     * @throws InterruptedException
+     */
+    public RouteLimit acquire(HttpHost route) throws InterruptedException {
+        RouteLimit routeLimit = this.routes.get(route);
+        if (routeLimit == null) {
+            RouteLimit newLimit = new RouteLimit();
+            routeLimit = this.routes.putIfAbsent(route, newLimit);
+            if (routeLimit == null) {
+                routeLimit = newLimit;
+            }
+        }
+        routeLimit.acquire();
+        return routeLimit;
+    }
+
+    /**
+     * 包装一个HttpClient, 通过它执行的请求都受到limit的限制
+     */
+    public CloseableHttpClient wrap(CloseableHttpClient httpclient) {
+        return new LimitedHttpClient(httpclient);
+    }
+
+    /**
+     * 在limit的限制下执行异步请求, 超过limit时阻塞调用的线程
+     * 
+     * @param httpclient 已经start的异步HttpClient
+     * @param request
+     * @param callback 可以为null
+     * @return Future
+     * @throws InterruptedException
+     */
+    public Future<HttpResponse> execute(CloseableHttpAsyncClient httpclient, HttpUriRequest request,
+            final FutureCallback<HttpResponse> callback) throws InterruptedException {
+        final RouteLimit routeLimit = acquire(URIUtils.extractHost(request.getURI()));
+        final long start = System.nanoTime();
+        try {
+            return httpclient.execute(request, new FutureCallback<HttpResponse>() {
+                @Override
+                public void completed(HttpResponse response) {
+                    routeLimit.release(start, isOverload(response));
+                    if (callback != null) {
+                        callback.completed(response);
+                    }
+                }
+
+                @Override
+                public void failed(Exception ex) {
+                    routeLimit.release(start, true);
+                    if (callback != null) {
+                        callback.failed(ex);
+                    }
+                }
+
+                @Override
+                public void cancelled() {
+                    routeLimit.cancel();
+                    if (callback != null) {
+                        callback.cancelled();
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            routeLimit.cancel();
+            throw e;
+        }
+    }
+
+    private static boolean isOverload(HttpResponse response) {
+        int status = response.getStatusLine().getStatusCode();
+        return status == 429 || status == HttpStatus.SC_SERVICE_UNAVAILABLE || status == HttpStatus.SC_GATEWAY_TIMEOUT;
+    }
+
+    /**
+     * 一个route的limit
+     */
+    public class RouteLimit {
+        private double limit = AdaptiveConcurrencyLimiter.this.initialLimit;
+        private int inFlight;
+        private long minLatency;
+        private long lastBackoff = System.nanoTime();
+
+        synchronized void acquire() throws InterruptedException {
+            while (this.inFlight >= (int) this.limit) {
+                wait();
+            }
+            this.inFlight++;
+        }
+
+        /**
+         * 请求完成, 根据响应时间和是否过载调整limit
+         * 
+         * @param start 请求开始时的System.nanoTime()
+         * @param overload 请求是否失败或者服务器返回了过载的状态码
+         */
+        public synchronized void release(long start, boolean overload) {
+            long latency = System.nanoTime() - start;
+            int inFlight = this.inFlight--;
+
+            if (overload) {
+                backoff(start);
+            } else {
+                // 最小响应时间缓慢上浮, 以适应服务器正常的响应时间变化
+                if (this.minLatency == 0 || latency < this.minLatency) {
+                    this.minLatency = latency;
+                } else {
+                    this.minLatency += (latency - this.minLatency) >> 8;
+                }
+
+                if (latency > this.minLatency * AdaptiveConcurrencyLimiter.this.latencyTolerance) {
+                    backoff(start);
+                } else if (inFlight * 2 >= this.limit) { // 并发数远没有达到limit时不需要增加
+                    this.limit = Math.min(AdaptiveConcurrencyLimiter.this.maxLimit, this.limit + 1 / this.limit);
+                }
+            }
+            notifyAll();
+        }
+
+        /**
+         * 请求没有真正执行(例如被取消了), 只归还许可, 不调整limit
+         */
+        public synchronized void cancel() {
+            this.inFlight--;
+            notifyAll();
+        }
+
+        /**
+         * 乘性减, 上次减小limit之后才开始的请求才会再次减小limit, 这样一批同时失败的请求只会减小一次
+         */
+        private void backoff(long start) {
+            if (start - this.lastBackoff < 0) {
+                return;
+            }
+            this.lastBackoff = System.nanoTime();
+            this.limit = Math.max(AdaptiveConcurrencyLimiter.this.minLimit, this.limit * AdaptiveConcurrencyLimiter.this.backoffRatio);
+        }
+
+        public synchronized int getLimit() {
+            return (int) this.limit;
+        }
+
+        public synchronized int getInFlight() {
+            return this.inFlight;
+        }
+    }
+
+    /**
+     * 执行请求前先取得许可的HttpClient
+     */
+    @SuppressWarnings("deprecation")
+    private class LimitedHttpClient extends CloseableHttpClient {
+        private final CloseableHttpClient httpclient;
+
+        LimitedHttpClient(CloseableHttpClient httpclient) {
+            this.httpclient = httpclient;
+        }
+
+        @Override
+        protected CloseableHttpResponse doExecute(HttpHost target, HttpRequest request, HttpContext context)
+                throws IOException, ClientProtocolException {
+            if (target == null) { // 没有host的请求无法区分route
+                return this.httpclient.execute(target, request, context);
+            }
+
+            RouteLimit routeLimit;
+            try {
+                routeLimit = acquire(target);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for the concurrency limit");
+            }
+
+            long start = System.nanoTime();
+            boolean overload = true;
+            try {
+                CloseableHttpResponse response = this.httpclient.execute(target, request, context);
+                overload = isOverload(response);
+                return response;
+            } finally {
+                routeLimit.release(start, overload);
+            }
+        }
+
+        @Override
+        public org.apache.http.params.HttpParams getParams() {
+            return this.httpclient.getParams();
+        }
+
+        @Override
+        public org.apache.http.conn.ClientConnectionManager getConnectionManager() {
+            return this.httpclient.getConnectionManager();
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.httpclient.close();
+        }
+    }
+}
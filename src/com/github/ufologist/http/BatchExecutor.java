@@ -0,0 +1,245 @@
+package com.github.ufologist.http;
+
+import java.lang.reflect.Method;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.fluent.Executor;
+import org.apache.http.client.fluent.Request;
+
+/**
+ * 批量执行Fluent API的Request
+ * 
+ * 每个请求都是阻塞执行的, 在JDK21以上使用虚拟线程(每个请求一个), 否则使用固定大小的线程池.
+ * 同时执行的请求数不会超过concurrency, 因此一次提交上万个请求也不需要同样大小的连接池或者线程数.
+ * 结果按照完成的先后顺序返回, 而不是提交的顺序.
+ * 
+ * <pre>
+ * BatchExecutor batch = BatchExecutor.newInstance(200);
+ * Iterator&lt;BatchExecutor.Result&lt;String&gt;&gt; results = batch.execute(requests, new BasicResponseHandler());
+ * while (results.hasNext()) {
+ *     BatchExecutor.Result&lt;String&gt; result = results.next();
+ *     ...
+ * }
+ * batch.shutdown();
+ * </pre>
+ * 
+ * @author Sun
+ * @version BatchExecutor.java 2026-10-18
+ */
+public class BatchExecutor {
+    private final ExecutorService threadpool;
+    private final Semaphore permits;
+    private final boolean virtual;
+    private Executor executor;
+
+    /**
+     * @param concurrency 最多同时执行多少个请求
+     */
+    public static BatchExecutor newInstance(int concurrency) {
+        return new BatchExecutor(concurrency);
+    }
+
+    BatchExecutor(int concurrency) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("concurrency must be positive");
+        }
+        ExecutorService virtualThreadPool = newVirtualThreadPerTaskExecutor();
+        this.virtual = virtualThreadPool != null;
+        this.threadpool = this.virtual ? virtualThreadPool : newFixedThreadPool(concurrency);
+        this.permits = new Semaphore(concurrency);
+    }
+
+    /**
+     * 使用指定的Executor执行请求(例如需要保持cookie), 默认直接使用Request.execute()
+     */
+    public BatchExecutor use(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * @return 是否使用的是虚拟线程
+     */
+    public boolean isVirtual() {
+        return this.virtual;
+    }
+
+    /**
+     * 提交所有请求, 返回的Iterator按照请求完成的先后顺序取得结果, 没有完成的请求会阻塞next()
+     * 
+     * @param requests
+     * @param handler 处理每个请求的response
+     * @return 按照完成顺序返回的结果
+     */
+    public <T> Iterator<Result<T>> execute(Iterable<Request> requests, final ResponseHandler<T> handler) {
+        final CompletionService<Result<T>> completionService = new ExecutorCompletionService<Result<T>>(this.threadpool);
+        int count = 0;
+        for (Request request : requests) {
+            completionService.submit(new RequestTask<T>(count++, request, handler));
+        }
+        final int total = count;
+
+        return new Iterator<Result<T>>() {
+            private int returned;
+
+            @Override
+            public boolean hasNext() {
+                return this.returned < total;
+            }
+
+            @Override
+            public Result<T> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    Result<T> result = completionService.take().get();
+                    this.returned++;
+                    return result;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                } catch (ExecutionException e) { // RequestTask不会抛出异常
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * 不再接收新的请求, 已经提交的请求会继续执行完
+     */
+    public void shutdown() {
+        this.threadpool.shutdown();
+    }
+
+    /**
+     * 通过反射创建虚拟线程池(JDK21+), 更早的JDK返回null
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService newFixedThreadPool(int size) {
+        ThreadPoolExecutor threadpool = new ThreadPoolExecutor(size, size,
+                60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "BatchExecutor-" + this.count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        threadpool.allowCoreThreadTimeOut(true);
+        return threadpool;
+    }
+
+    private class RequestTask<T> implements Callable<Result<T>> {
+        private final int index;
+        private final Request request;
+        private final ResponseHandler<T> handler;
+
+        RequestTask(int index, Request request, ResponseHandler<T> handler) {
+            this.index = index;
+            this.request = request;
+            this.handler = handler;
+        }
+
+        @Override
+        public Result<T> call() {
+            try {
+                BatchExecutor.this.permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new Result<T>(this.index, this.request, null, e);
+            }
+            try {
+                Executor executor = BatchExecutor.this.executor;
+                T value = executor != null
+                        ? executor.execute(this.request).handleResponse(this.handler)
+                        : this.request.execute().handleResponse(this.handler);
+                return new Result<T>(this.index, this.request, value, null);
+            } catch (Exception e) {
+                return new Result<T>(this.index, this.request, null, e);
+            } finally {
+                BatchExecutor.this.permits.release();
+            }
+        }
+    }
+
+    /**
+     * 一个请求的执行结果
+     */
+    public static class Result<T> {
+        private final int index;
+        private final Request request;
+        private final T value;
+        private final Exception exception;
+
+        Result(int index, Request request, T value, Exception exception) {
+            this.index = index;
+            this.request = request;
+            this.value = value;
+            this.exception = exception;
+        }
+
+        /**
+         * @return 请求提交时的序号
+         */
+        public int getIndex() {
+            return this.index;
+        }
+
+        public Request getRequest() {
+            return this.request;
+        }
+
+        public boolean isSuccess() {
+            return this.exception == null;
+        }
+
+        /**
+         * @return 请求失败时的异常
+         */
+        public Exception getException() {
+            return this.exception;
+        }
+
+        /**
+         * @return 请求的结果
+         * @throws ExecutionException 请求失败
+         */
+        public T get() throws ExecutionException {
+            if (this.exception != null) {
+                throw new ExecutionException(this.exception);
+            }
+            return this.value;
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.github.ufologist.http;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+import org.json.JSONObject;
+
+import com.github.ufologist.http.metrics.HttpMetrics;
+
+/**
+ * HttpClient连接池的配置, 用于替换Fluent API默认共用的HttpClient(Executor.CLIENT)
+ * 
+ * 例如在config.json中配置
+ * <pre>
+ * "connectionPool": {
+ *     "maxTotal": 2000,
+ *     "maxPerRoute": 1000,
+ *     "maxPerHost": {"http://localhost:8080": 1500},
+ *     "idleTimeout": 30000,
+ *     "timeToLive": 60000
+ * }
+ * </pre>
+ * 时间单位都是毫秒, 小于等于0表示不启用.
+ * 
+ * XXX HttpClient 4.3.6 的连接池还不支持validateAfterInactivity(4.4才有), 因此没有这个配置.
+ * Fluent API的Request每次执行时都会设置自己的RequestConfig, 其中stale connection check默认是开启的,
+ * 所以每次复用连接前都已经会检查连接是否可用, 不能指定空闲多久之后才检查.
+ * 空闲连接仍然只按照idleTimeout关闭.
+ * 
+ * @author Sun
+ * @version ConnectionPoolConfig.java 2026-10-18
+ * @see HttpToolbox#configConnectionPool(ConnectionPoolConfig)
+ */
+public class ConnectionPoolConfig {
+    private int maxTotal = 200;
+    private int maxPerRoute = 100;
+    private final Map<HttpHost, Integer> maxPerHost = new LinkedHashMap<HttpHost, Integer>();
+    private long idleTimeout;
+    private long timeToLive;
+    private long evictionInterval = 5000;
+    private HttpMetrics metrics;
+
+    public static ConnectionPoolConfig custom() {
+        return new ConnectionPoolConfig();
+    }
+
+    /**
+     * 从JSON中读取连接池配置, 没有配置的项使用默认值
+     * 
+     * @param json
+     * @return ConnectionPoolConfig
+     */
+    public static ConnectionPoolConfig fromJSON(JSONObject json) {
+        ConnectionPoolConfig config = new ConnectionPoolConfig();
+        config.setMaxTotal(json.optInt("maxTotal", config.maxTotal));
+        config.setMaxPerRoute(json.optInt("maxPerRoute", config.maxPerRoute));
+        config.setIdleTimeout(json.optLong("idleTimeout", config.idleTimeout));
+        config.setTimeToLive(json.optLong("timeToLive", config.timeToLive));
+        config.setEvictionInterval(json.optLong("evictionInterval", config.evictionInterval));
+
+        JSONObject hosts = json.optJSONObject("maxPerHost");
+        if (hosts != null) {
+            Iterator<String> keys = hosts.keys();
+            while (keys.hasNext()) {
+                String host = keys.next();
+                config.setMaxPerHost(host, hosts.getInt(host));
+            }
+        }
+        return config;
+    }
+
+    public ConnectionPoolConfig setMaxTotal(int maxTotal) {
+        this.maxTotal = maxTotal;
+        return this;
+    }
+
+    public ConnectionPoolConfig setMaxPerRoute(int maxPerRoute) {
+        this.maxPerRoute = maxPerRoute;
+        return this;
+    }
+
+    /**
+     * 单独设置某个host的最大连接数
+     * 
+     * @param host 例如 http://localhost:8080 或者 https://www.baidu.com
+     * @param max
+     */
+    public ConnectionPoolConfig setMaxPerHost(String host, int max) {
+        URI uri = URI.create(host);
+        return setMaxPerHost(new HttpHost(uri.getHost(), uri.getPort(), uri.getScheme()), max);
+    }
+
+    public ConnectionPoolConfig setMaxPerHost(HttpHost host, int max) {
+        this.maxPerHost.put(host, max);
+        return this;
+    }
+
+    /**
+     * @param idleTimeout 关闭空闲超过这个时间的连接
+     */
+    public ConnectionPoolConfig setIdleTimeout(long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+        return this;
+    }
+
+    /**
+     * @param timeToLive 连接的最长存活时间
+     */
+    public ConnectionPoolConfig setTimeToLive(long timeToLive) {
+        this.timeToLive = timeToLive;
+        return this;
+    }
+
+    /**
+     * @param evictionInterval 后台线程多久清理一次过期/空闲的连接
+     */
+    public ConnectionPoolConfig setEvictionInterval(long evictionInterval) {
+        this.evictionInterval = evictionInterval;
+        return this;
+    }
+
+    /**
+     * @param metrics 记录通过这个连接池发送的请求的统计数据
+     */
+    public ConnectionPoolConfig setMetrics(HttpMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    public HttpMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    public int getMaxTotal() {
+        return this.maxTotal;
+    }
+
+    public int getMaxPerRoute() {
+        return this.maxPerRoute;
+    }
+
+    /**
+     * 按照配置创建连接池
+     * 
+     * @return PoolingHttpClientConnectionManager
+     */
+    public PoolingHttpClientConnectionManager buildConnectionManager() {
+        PoolingHttpClientConnectionManager connManager;
+        if (this.metrics != null) {
+            connManager = this.metrics.newConnectionManager(this.timeToLive);
+        } else {
+            connManager = this.timeToLive > 0
+                    ? new PoolingHttpClientConnectionManager(this.timeToLive, TimeUnit.MILLISECONDS)
+                    : new PoolingHttpClientConnectionManager();
+        }
+        connManager.setMaxTotal(this.maxTotal);
+        connManager.setDefaultMaxPerRoute(this.maxPerRoute);
+        for (Entry<HttpHost, Integer> entry : this.maxPerHost.entrySet()) {
+            connManager.setMaxPerRoute(toRoute(entry.getKey()), entry.getValue());
+        }
+        return connManager;
+    }
+
+    /**
+     * 按照配置创建使用连接池的HttpClient, 需要清理空闲连接时会启动一个后台线程, 关闭HttpClient时停止
+     * 
+     * @return CloseableHttpClient
+     */
+    public CloseableHttpClient build() {
+        return build(buildConnectionManager());
+    }
+
+    /**
+     * 使用指定的连接池创建HttpClient, 连接池一般由buildConnectionManager()创建
+     * 
+     * @param connManager
+     * @return CloseableHttpClient
+     */
+    public CloseableHttpClient build(PoolingHttpClientConnectionManager connManager) {
+        final IdleConnectionEvictor evictor = this.idleTimeout > 0 || this.timeToLive > 0
+                ? new IdleConnectionEvictor(connManager, this.evictionInterval, this.idleTimeout)
+                : null;
+        HttpClientBuilder builder = HttpClients.custom().setConnectionManager(connManager);
+        if (this.metrics != null) {
+            this.metrics.instrument(builder);
+        }
+        CloseableHttpClient httpclient = builder.build();
+        if (evictor != null) {
+            evictor.start();
+            return new EvictingHttpClient(httpclient, evictor);
+        }
+        return httpclient;
+    }
+
+    /**
+     * 连接池中的route是带有具体端口的, 没有指定端口的按照scheme补全
+     */
+    private static HttpRoute toRoute(HttpHost host) {
+        boolean secure = "https".equalsIgnoreCase(host.getSchemeName());
+        int port = host.getPort();
+        if (port <= 0) {
+            port = secure ? 443 : 80;
+        }
+        return new HttpRoute(new HttpHost(host.getHostName(), port, host.getSchemeName()), null, secure);
+    }
+
+    /**
+     * 定期关闭过期和空闲连接的后台线程
+     */
+    static class IdleConnectionEvictor extends Thread {
+        private final PoolingHttpClientConnectionManager connManager;
+        private final long interval;
+        private final long idleTime;
+        private volatile boolean shutdown;
+
+        IdleConnectionEvictor(PoolingHttpClientConnectionManager connManager, long interval, long idleTime) {
+            super("IdleConnectionEvictor");
+            setDaemon(true);
+            this.connManager = connManager;
+            this.interval = idleTime > 0 ? Math.min(interval, idleTime) : interval;
+            this.idleTime = idleTime;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!this.shutdown) {
+                    Thread.sleep(this.interval);
+                    this.connManager.closeExpiredConnections();
+                    if (this.idleTime > 0) {
+                        this.connManager.closeIdleConnections(this.idleTime, TimeUnit.MILLISECONDS);
+                    }
+                }
+            } catch (InterruptedException e) {
+                // 停止
+            }
+        }
+
+        void shutdown() {
+            this.shutdown = true;
+            interrupt();
+        }
+    }
+
+    /**
+     * 关闭HttpClient时同时停止清理连接的后台线程
+     */
+    @SuppressWarnings("deprecation")
+    static class EvictingHttpClient extends CloseableHttpClient {
+        private final CloseableHttpClient httpclient;
+        private final IdleConnectionEvictor evictor;
+
+        EvictingHttpClient(CloseableHttpClient httpclient, IdleConnectionEvictor evictor) {
+            this.httpclient = httpclient;
+            this.evictor = evictor;
+        }
+
+        @Override
+        protected CloseableHttpResponse doExecute(HttpHost target, HttpRequest request, HttpContext context)
+                throws IOException, ClientProtocolException {
+            return this.httpclient.execute(target, request, context);
+        }
+
+        @Override
+        public org.apache.http.params.HttpParams getParams() {
+            return this.httpclient.getParams();
+        }
+
+        @Override
+        public org.apache.http.conn.ClientConnectionManager getConnectionManager() {
+            return this.httpclient.getConnectionManager();
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.evictor.shutdown();
+            this.httpclient.close();
+        }
+    }
+}
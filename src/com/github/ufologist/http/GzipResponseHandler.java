@@ -1,7 +1,17 @@
 package com.github.ufologist.http;
 
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.Charset;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
 
 import org.apache.http.Consts;
 import org.apache.http.Header;
@@ -13,9 +23,7 @@ import org.apache.http.StatusLine;
 import org.apache.http.client.ClientProtocolException;
 import org.apache.http.client.HttpResponseException;
 import org.apache.http.client.ResponseHandler;
-import org.apache.http.client.entity.GzipDecompressingEntity;
 import org.apache.http.entity.ContentType;
-import org.apache.http.util.EntityUtils;
 
 /**
  * 处理gzip压缩的response, 也可以是plaintext, 支持指定编码格式
@@ -23,13 +31,27 @@ import org.apache.http.util.EntityUtils;
  * XXX 由于以前使用的 HttpClient 4.2.1 没有自动处理gzip压缩的response, 因此自己实现了这个.
  * 但是HttpClient 4.3.6(不知道具体是从哪个版本开始的)已经能自动处理gzip压缩的response(而且会自动添加请求头Accept-Encoding: gzip,deflate), 就不再需要这个了.
  * 
+ * 这个handler是无状态的, 可以在多个线程中共用一个实例.
+ * 解压时复用池中的Inflater和byte buffer, 不再每次都通过GzipDecompressingEntity + EntityUtils.toString新建buffer,
+ * 如果只需要解压后的数据, 可以直接使用decode(HttpEntity, OutputStream)写到自己的sink中.
+ * 
  * @author Sun
  * @version 2014-12-1
  */
 public class GzipResponseHandler implements ResponseHandler<String> {
-    private Charset charset;
+    private static final String GZIP = "gzip";
+    private static final String X_GZIP = "x-gzip";
+    private static final String DEFLATE = "deflate";
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int POOL_SIZE = 64;
+    private static final BlockingQueue<Decoder> decoderPool = new ArrayBlockingQueue<Decoder>(POOL_SIZE);
 
-    public GzipResponseHandler() {}
+    private final Charset charset;
+
+    public GzipResponseHandler() {
+        this(null);
+    }
     public GzipResponseHandler(Charset charset) {
         this.charset = charset;
     }
@@ -43,34 +65,233 @@ public class GzipResponseHandler implements ResponseHandler<String> {
         }
 
         if (entity != null) {
-            if (isGzip(entity)) { // 不是gzip的按照常规输出
-                entity = new GzipDecompressingEntity(entity);
-            }
-    
-            if (this.charset == null) { // 没有指定编码的尝试从content-type中取
-                this.charset = ContentType.getOrDefault(entity).getCharset();
-                if (this.charset == null) { // 取不到默认指定为UTF-8
-                    this.charset = Consts.UTF_8;
+            Charset charset = this.charset;
+            if (charset == null) { // 没有指定编码的尝试从content-type中取
+                charset = ContentType.getOrDefault(entity).getCharset();
+                if (charset == null) { // 取不到默认指定为UTF-8
+                    charset = Consts.UTF_8;
                 }
             }
-    
-            return EntityUtils.toString(entity, this.charset);
+
+            long length = entity.getContentLength();
+            ByteArrayOutputStream sink = new ByteArrayOutputStream(length > 0 && length < Integer.MAX_VALUE ? (int) length : BUFFER_SIZE);
+            decode(entity, sink);
+            return sink.toString(charset.name());
         }
         return null;
     }
-    
-    private boolean isGzip(HttpEntity entity) {
+
+    /**
+     * 将entity的内容(gzip/deflate压缩的会先解压)写到sink中, 完成后关闭entity的InputStream
+     * 
+     * @param entity
+     * @param sink 解压后的数据写到这里
+     * @return 写入sink的字节数
+     * @throws IOException
+     */
+    public long decode(HttpEntity entity, OutputStream sink) throws IOException {
+        final InputStream instream = entity.getContent();
+        if (instream == null) {
+            return 0;
+        }
+
+        Decoder decoder = decoderPool.poll();
+        if (decoder == null) {
+            decoder = new Decoder();
+        }
+        try {
+            return decoder.decode(instream, getContentEncoding(entity), sink);
+        } finally {
+            decoder.release();
+            if (!decoderPool.offer(decoder)) { // 池满了就丢弃
+                decoder.end();
+            }
+            instream.close();
+        }
+    }
+
+    private String getContentEncoding(HttpEntity entity) {
         Header contentEncoding = entity.getContentEncoding();
-        boolean gzip = false;
         if (contentEncoding != null) {
             HeaderElement[] codecs = contentEncoding.getElements();
             for (int i = 0, length = codecs.length; i < length; i++) {
-                if (codecs[i].getName().equalsIgnoreCase("gzip")) {
-                    gzip = true;
+                String name = codecs[i].getName();
+                if (name.equalsIgnoreCase(GZIP) || name.equalsIgnoreCase(X_GZIP)) {
+                    return GZIP;
+                } else if (name.equalsIgnoreCase(DEFLATE)) {
+                    return DEFLATE;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 解压器, 包含一个Inflater和读写用的buffer, 用完后放回池中复用
+     * 
+     * gzip/zlib的头和尾都是自己解析的, 因此只需要一个nowrap的Inflater
+     */
+    private static final class Decoder {
+        private static final int FHCRC = 2;
+        private static final int FEXTRA = 4;
+        private static final int FNAME = 8;
+        private static final int FCOMMENT = 16;
+
+        private final Inflater inflater = new Inflater(true);
+        private final CRC32 crc = new CRC32();
+        private final byte[] inBuf = new byte[BUFFER_SIZE];
+        private final byte[] outBuf = new byte[BUFFER_SIZE];
+        private InputStream in;
+        private int pos;
+        private int lim;
+
+        long decode(InputStream in, String encoding, OutputStream sink) throws IOException {
+            this.in = in;
+            this.pos = 0;
+            this.lim = 0;
+
+            long total = 0;
+            if (GZIP.equals(encoding)) {
+                do { // 可能有多个gzip member
+                    readGzipHeader();
+                    this.crc.reset();
+                    this.inflater.reset();
+                    long n = inflate(sink, true);
+                    readGzipTrailer(n);
+                    total += n;
+                } while (ensure(1) && (this.inBuf[this.pos] & 0xff) == 0x1f);
+            } else if (DEFLATE.equals(encoding)) {
+                // 按规范deflate应该带zlib头, 但有些服务器发送的是raw deflate
+                if (ensure(2) && isZlibHeader(this.inBuf[this.pos] & 0xff, this.inBuf[this.pos + 1] & 0xff)) {
+                    this.pos += 2;
+                }
+                this.inflater.reset();
+                total = inflate(sink, false);
+            } else {
+                while (ensure(1)) {
+                    int n = this.lim - this.pos;
+                    sink.write(this.inBuf, this.pos, n);
+                    this.pos = this.lim;
+                    total += n;
+                }
+            }
+            return total;
+        }
+
+        void release() {
+            this.in = null;
+        }
+
+        void end() {
+            this.inflater.end();
+        }
+
+        private long inflate(OutputStream sink, boolean checksum) throws IOException {
+            long total = 0;
+            for (;;) {
+                int n;
+                try {
+                    n = this.inflater.inflate(this.outBuf, 0, this.outBuf.length);
+                } catch (DataFormatException e) {
+                    throw new ZipException(e.getMessage());
+                }
+                if (n > 0) {
+                    sink.write(this.outBuf, 0, n);
+                    if (checksum) {
+                        this.crc.update(this.outBuf, 0, n);
+                    }
+                    total += n;
+                } else if (this.inflater.finished()) {
                     break;
+                } else if (this.inflater.needsDictionary()) {
+                    throw new ZipException("Preset dictionary is not supported");
+                } else if (this.inflater.needsInput()) {
+                    if (!ensure(1)) {
+                        throw new EOFException("Unexpected end of compressed input stream");
+                    }
+                    this.inflater.setInput(this.inBuf, this.pos, this.lim - this.pos);
+                    this.pos = this.lim;
+                }
+            }
+            // Inflater没有用完的数据还给buffer, 用于解析gzip的尾部
+            this.pos = this.lim - this.inflater.getRemaining();
+            return total;
+        }
+
+        private void readGzipHeader() throws IOException {
+            if (readUByte() != 0x1f || readUByte() != 0x8b) {
+                throw new ZipException("Not in GZIP format");
+            }
+            if (readUByte() != 8) {
+                throw new ZipException("Unsupported compression method");
+            }
+            int flags = readUByte();
+            skip(6); // MTIME, XFL, OS
+            if ((flags & FEXTRA) == FEXTRA) {
+                skip(readUByte() | (readUByte() << 8));
+            }
+            if ((flags & FNAME) == FNAME) {
+                while (readUByte() != 0) {}
+            }
+            if ((flags & FCOMMENT) == FCOMMENT) {
+                while (readUByte() != 0) {}
+            }
+            if ((flags & FHCRC) == FHCRC) {
+                skip(2);
+            }
+        }
+
+        private void readGzipTrailer(long size) throws IOException {
+            if (readUInt() != this.crc.getValue()) {
+                throw new ZipException("Corrupt GZIP trailer");
+            }
+            if (readUInt() != (size & 0xffffffffL)) {
+                throw new ZipException("Corrupt GZIP trailer");
+            }
+        }
+
+        private boolean isZlibHeader(int cmf, int flg) {
+            return (cmf & 0x0f) == 8 && ((cmf << 8) | flg) % 31 == 0;
+        }
+
+        private long readUInt() throws IOException {
+            return (readUByte() | (readUByte() << 8) | (readUByte() << 16) | ((long) readUByte() << 24));
+        }
+
+        private int readUByte() throws IOException {
+            if (!ensure(1)) {
+                throw new EOFException();
+            }
+            return this.inBuf[this.pos++] & 0xff;
+        }
+
+        private void skip(int n) throws IOException {
+            while (n-- > 0) {
+                readUByte();
+            }
+        }
+
+        /**
+         * 保证buffer中至少有n个字节可读
+         * 
+         * @return 流结束前是否读到了n个字节
+         */
+        private boolean ensure(int n) throws IOException {
+            int available = this.lim - this.pos;
+            if (available >= n) {
+                return true;
+            }
+            System.arraycopy(this.inBuf, this.pos, this.inBuf, 0, available);
+            this.pos = 0;
+            this.lim = available;
+            while (this.lim < n) {
+                int read = this.in.read(this.inBuf, this.lim, this.inBuf.length - this.lim);
+                if (read == -1) {
+                    return false;
                 }
+                this.lim += read;
             }
+            return true;
         }
-        return gzip;
     }
 }
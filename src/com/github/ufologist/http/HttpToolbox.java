@@ -6,13 +6,18 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 
+import org.apache.http.client.fluent.Request;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.util.EntityUtils;
 import org.apache.log4j.Logger;
 import org.json.JSONObject;
 
 import com.github.ufologist.MidiPlayer;
+import com.github.ufologist.http.metrics.HttpMetrics;
 
 /**
  * HTTP 工具箱
@@ -29,10 +34,18 @@ public class HttpToolbox {
     public static final String ACCEPT_ENCODING_GZIP = "gzip,deflate,sdch";
 
     public static final JsonResponseHandler jsonResponseHandler = new JsonResponseHandler();
+    // 直接从InputStream中解析JSON, 适用于返回数据很大的情况
+    public static final JsonResponseHandler streamingJsonResponseHandler = new JsonResponseHandler(true);
+    // 只在读取字段时才解析该字段, 适用于字段很多但只读取其中几个的情况
+    public static final LazyJsonResponseHandler lazyJsonResponseHandler = new LazyJsonResponseHandler();
 
     private static final String CONFIG_JSON_PATH = "/config.json";
     private static final String DEFAULT_MIDI_PATH = "/win.mid";
+    private static final String CONFIG_CONNECTION_POOL = "connectionPool";
     private static JSONObject config;
+    private static CloseableHttpClient pooledHttpClient;
+    private static PoolingHttpClientConnectionManager pooledConnManager;
+    private static HttpMetrics metrics;
 
     static {
         initConfig();
@@ -67,11 +80,85 @@ public class HttpToolbox {
         try {
             InputStreamEntity json = new InputStreamEntity(HttpToolbox.class.getResourceAsStream(CONFIG_JSON_PATH), ContentType.APPLICATION_JSON);
             config = new JSONObject(EntityUtils.toString(json));
+
+            JSONObject connectionPool = config.optJSONObject(CONFIG_CONNECTION_POOL);
+            if (connectionPool != null) {
+                configConnectionPool(ConnectionPoolConfig.fromJSON(connectionPool));
+            }
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * 设置Fluent API(Request.execute)使用的连接池, 替换默认的(MaxPerRoute: 100, MaxTotal: 200)
+     * 
+     * 也可以在config.json中配置connectionPool, 具体请查看ConnectionPoolConfig
+     * 
+     * 之前的连接池不会马上关闭, 等正在执行的请求都释放了连接之后再由后台线程关闭
+     * 
+     * @param poolConfig
+     */
+    public static synchronized void configConnectionPool(ConnectionPoolConfig poolConfig) {
+        if (poolConfig.getMetrics() == null) {
+            poolConfig.setMetrics(getMetrics());
+        }
+
+        CloseableHttpClient previous = pooledHttpClient;
+        PoolingHttpClientConnectionManager previousConnManager = pooledConnManager;
+        pooledConnManager = poolConfig.buildConnectionManager();
+        pooledHttpClient = poolConfig.build(pooledConnManager);
+        Request.setDefaultHttpClient(pooledHttpClient);
+
+        if (previous != null) {
+            closeWhenReleased(previous, previousConnManager);
+        }
+    }
+
+    /**
+     * 由后台线程每秒检查一次, 连接池中没有借出的连接, 也没有等待连接的请求时关闭HttpClient
+     */
+    private static void closeWhenReleased(final CloseableHttpClient httpclient,
+            final PoolingHttpClientConnectionManager connManager) {
+        Thread closer = new Thread("ConnectionPoolCloser") {
+            @Override
+            public void run() {
+                try {
+                    PoolStats stats;
+                    do {
+                        // 先等一下, 让刚拿到旧HttpClient还没有借出连接的请求也能借到连接
+                        Thread.sleep(1000);
+                        stats = connManager.getTotalStats();
+                    } while (stats.getLeased() > 0 || stats.getPending() > 0);
+                    httpclient.close();
+                } catch (InterruptedException e) {
+                    // 停止
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        };
+        closer.setDaemon(true);
+        closer.start();
+    }
+
+    /**
+     * 通过HttpToolbox配置的连接池发送的请求的统计数据, 同时注册到JMX(com.github.ufologist.http:type=HttpMetrics)
+     * 
+     * @return HttpMetrics
+     */
+    public static synchronized HttpMetrics getMetrics() {
+        if (metrics == null) {
+            metrics = new HttpMetrics();
+            try {
+                metrics.registerMBean(HttpMetrics.DEFAULT_OBJECT_NAME);
+            } catch (Exception e) {
+                logger.warn("register HttpMetrics MBean failed", e);
+            }
+        }
+        return metrics;
+    }
+
     /**
      * 休息, 休息一下
      * 
@@ -0,0 +1,105 @@
+package com.github.ufologist.http;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import org.apache.http.Consts;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+import org.json.JSONException;
+import org.json.JSONWriter;
+
+/**
+ * 边生成边发送的JSON请求体
+ *
+ * 在writeTo时才通过JSONWriter生成JSON, 经过缓冲直接写入请求的OutputStream, 使用Transfer-Encoding: chunked发送,
+ * 不需要先在内存中生成完整的JSONObject或者String, 上传几百MB的JSON也只占用缓冲区大小的内存.
+ *
+ * <pre>
+ * Request.Post(url).body(new JsonEntity() {
+ *     protected void writeJson(JSONWriter writer) {
+ *         writer.array();
+ *         for (Record record : records) {
+ *             writer.object().key("id").value(record.getId()).endObject();
+ *         }
+ *         writer.endArray();
+ *     }
+ * }).execute();
+ * </pre>
+ *
+ * 默认不检查重复的key(检查需要在内存中保留所有的key), 需要时使用JsonEntity(true).
+ * writeJson每次发送(包括重试)都会被调用, 因此必须能够重复生成同样的内容.
+ *
+ * @author Sun
+ * @version JsonEntity.java 2026-10-18
+ */
+public abstract class JsonEntity extends AbstractHttpEntity {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final boolean checkKeys;
+
+    public JsonEntity() {
+        this(false);
+    }
+    /**
+     * @param checkKeys 是否检查同一个对象中重复的key
+     */
+    public JsonEntity(boolean checkKeys) {
+        this.checkKeys = checkKeys;
+        setContentType(ContentType.APPLICATION_JSON.toString());
+        setChunked(true);
+    }
+
+    /**
+     * 生成JSON, 只需要写入一个完整的JSON值, 不需要flush
+     *
+     * @param writer 写入请求体的JSONWriter
+     * @throws IOException
+     */
+    protected abstract void writeJson(JSONWriter writer) throws IOException;
+
+    @Override
+    public void writeTo(OutputStream outstream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outstream, Consts.UTF_8), BUFFER_SIZE);
+        try {
+            writeJson(new JSONWriter(writer, this.checkKeys));
+        } catch (JSONException e) {
+            if (e.getCause() instanceof IOException) { // JSONWriter将IOException包装成了JSONException
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+        writer.flush();
+    }
+
+    /**
+     * 生成完整的JSON后返回, 只在需要读取内容时使用(例如打印日志), 发送请求使用的是writeTo
+     */
+    @Override
+    public InputStream getContent() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeTo(out);
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+}
@@ -0,0 +1,97 @@
+package com.github.ufologist.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.StatusLine;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.ResponseHandler;
+import org.json.JSONContentHandler;
+import org.json.JSONKeyPool;
+import org.json.JSONPullParser;
+import org.json.JSONTokener;
+
+/**
+ * 以事件的方式处理返回JSON数据的HTTP请求
+ *
+ * 直接从entity的InputStream边解码边解析, 不生成JSONObject/JSONArray,
+ * 内存占用只与嵌套层数和单个值的大小有关, 与返回数据的大小无关,
+ * 适合返回数据大到内存放不下(几百MB甚至几GB)的接口, 例如导出数据.
+ *
+ * <pre>
+ * List&lt;Object&gt; ids = Request.Get(url).execute().handleResponse(new JsonPullResponseHandler&lt;List&lt;Object&gt;&gt;() {
+ *     protected List&lt;Object&gt; handleJson(JSONPullParser parser) {
+ *         List&lt;Object&gt; ids = new ArrayList&lt;Object&gt;();
+ *         int event;
+ *         while ((event = parser.next()) != JSONPullParser.END_DOCUMENT) {
+ *             if (event == JSONPullParser.KEY &amp;&amp; parser.getKey().equals("id")) {
+ *                 parser.next();
+ *                 ids.add(parser.getValue());
+ *             }
+ *         }
+ *         return ids;
+ *     }
+ * });
+ * </pre>
+ *
+ * 也可以在handleJson中调用parser.parse(JSONContentHandler)以回调的方式处理, 见{@link #of(JSONContentHandler)}.
+ * 字段的key使用JSONKeyPool.DEFAULT共享.
+ *
+ * @author Sun
+ * @version JsonPullResponseHandler.java 2026-10-18
+ */
+public abstract class JsonPullResponseHandler<T> implements ResponseHandler<T> {
+    @Override
+    public T handleResponse(HttpResponse response) throws ClientProtocolException, IOException {
+        final StatusLine statusLine = response.getStatusLine();
+        final HttpEntity entity = response.getEntity();
+        if (statusLine.getStatusCode() >= HttpStatus.SC_MULTIPLE_CHOICES) {
+            throw new HttpResponseException(statusLine.getStatusCode(),
+                    statusLine.getReasonPhrase());
+        }
+        if (entity == null) {
+            return null;
+        }
+        final InputStream instream = entity.getContent();
+        if (instream == null) {
+            return null;
+        }
+        try {
+            JSONTokener tokener = new JSONTokener(new InputStreamReader(instream, JsonResponseHandler.getCharset(entity)));
+            tokener.setKeyPool(JSONKeyPool.DEFAULT);
+            return handleJson(new JSONPullParser(tokener));
+        } finally {
+            instream.close();
+        }
+    }
+
+    /**
+     * 读取response body中的JSON事件
+     *
+     * @param parser 从entity的InputStream中读取事件的JSONPullParser
+     * @return 处理结果
+     * @throws IOException
+     */
+    protected abstract T handleJson(JSONPullParser parser) throws IOException;
+
+    /**
+     * 将整个response body的JSON事件依次交给handler处理
+     *
+     * @param handler
+     * @return 返回null的ResponseHandler
+     */
+    public static JsonPullResponseHandler<Void> of(final JSONContentHandler handler) {
+        return new JsonPullResponseHandler<Void>() {
+            @Override
+            protected Void handleJson(JSONPullParser parser) {
+                parser.parse(handler);
+                return null;
+            }
+        };
+    }
+}
@@ -1,6 +1,9 @@
 package com.github.ufologist.http;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
 
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
@@ -10,16 +13,47 @@ import org.apache.http.client.ClientProtocolException;
 import org.apache.http.client.HttpResponseException;
 import org.apache.http.client.ResponseHandler;
 import org.apache.http.entity.ContentType;
+import org.apache.http.protocol.HTTP;
 import org.apache.http.util.EntityUtils;
+import org.json.JSONKeyPool;
 import org.json.JSONObject;
+import org.json.JSONTokener;
 
 /**
  * 处理返回JSON数据的HTTP请求
  * 
+ * 默认先将整个response body读成String再解析;
+ * 开启streaming模式后直接从entity的InputStream边解码边解析, 不再生成中间的String,
+ * 适合返回数据很大(几MB)的JSON接口, 可以减少一半的内存占用.
+ * 
+ * 指定JSONKeyPool后, 解析出来的JSONObject中相同的key共用同一个String,
+ * 适合大量解析结构相同的接口返回数据(例如同一个接口调用成千上万次), 并且需要长时间保留解析结果的情况.
+ * 
  * @author Sun
  * @version JsonResponseHandler.java 2014-12-3 下午4:20:12
  */
 public class JsonResponseHandler implements ResponseHandler<JSONObject> {
+    private final boolean streaming;
+    private final JSONKeyPool keyPool;
+
+    public JsonResponseHandler() {
+        this(false);
+    }
+    /**
+     * @param streaming 是否直接从InputStream中解析JSON
+     */
+    public JsonResponseHandler(boolean streaming) {
+        this(streaming, null);
+    }
+    /**
+     * @param streaming 是否直接从InputStream中解析JSON
+     * @param keyPool 用于共享key的JSONKeyPool, 例如JSONKeyPool.DEFAULT, 为null时不共享
+     */
+    public JsonResponseHandler(boolean streaming, JSONKeyPool keyPool) {
+        this.streaming = streaming;
+        this.keyPool = keyPool;
+    }
+
     @Override
     public JSONObject handleResponse(HttpResponse response) throws ClientProtocolException, IOException {
         final StatusLine statusLine = response.getStatusLine();
@@ -29,8 +63,46 @@ public class JsonResponseHandler implements ResponseHandler<JSONObject> {
                     statusLine.getReasonPhrase());
         }
 	if (entity != null) {
-	    return new JSONObject(EntityUtils.toString(entity, ContentType.getOrDefault(entity).getCharset()));
+	    if (this.streaming) {
+	        return parse(entity);
+	    }
+	    return parse(new JSONTokener(EntityUtils.toString(entity, ContentType.getOrDefault(entity).getCharset())));
 	}
         return null;
     }
+
+    /**
+     * 从entity的InputStream中直接解析JSON, 解析完成后立即关闭InputStream以释放连接
+     * 
+     * @param entity
+     * @return JSONObject
+     * @throws IOException
+     */
+    private JSONObject parse(HttpEntity entity) throws IOException {
+        final InputStream instream = entity.getContent();
+        if (instream == null) {
+            return null;
+        }
+        try {
+            return parse(new JSONTokener(new InputStreamReader(instream, getCharset(entity))));
+        } finally {
+            instream.close();
+        }
+    }
+
+    private JSONObject parse(JSONTokener tokener) {
+        tokener.setKeyPool(this.keyPool);
+        return new JSONObject(tokener);
+    }
+
+    /**
+     * 与EntityUtils.toString一样, content-type中没有指定编码时使用ISO-8859-1
+     */
+    static Charset getCharset(HttpEntity entity) {
+        Charset charset = ContentType.getOrDefault(entity).getCharset();
+        if (charset == null) {
+            charset = HTTP.DEF_CONTENT_CHARSET;
+        }
+        return charset;
+    }
 }
@@ -0,0 +1,79 @@
+package com.github.ufologist.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.StatusLine;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.ResponseHandler;
+import org.json.JSONLazyObject;
+
+/**
+ * 处理返回JSON数据的HTTP请求, 返回JSONLazyObject
+ *
+ * 只扫描一遍response body记录每个字段的位置, 读取某个字段时才解析该字段的值.
+ * 适合返回数据字段很多(上千个), 但只需要读取其中几个字段的接口,
+ * 比JsonResponseHandler解析出完整的JSONObject要快得多, 产生的对象也少得多.
+ *
+ * @author Sun
+ * @version LazyJsonResponseHandler.java 2026-10-18
+ */
+public class LazyJsonResponseHandler implements ResponseHandler<JSONLazyObject> {
+    @Override
+    public JSONLazyObject handleResponse(HttpResponse response) throws ClientProtocolException, IOException {
+        final StatusLine statusLine = response.getStatusLine();
+        final HttpEntity entity = response.getEntity();
+        if (statusLine.getStatusCode() >= HttpStatus.SC_MULTIPLE_CHOICES) {
+            throw new HttpResponseException(statusLine.getStatusCode(),
+                    statusLine.getReasonPhrase());
+        }
+        if (entity == null) {
+            return null;
+        }
+        CharBuffer chars = readChars(entity);
+        if (chars == null) {
+            return null;
+        }
+        return new JSONLazyObject(chars.array(), 0, chars.limit());
+    }
+
+    /**
+     * 将entity的内容全部读入一个char[], 按照Content-Length预先分配大小, 读取完成后立即关闭InputStream以释放连接
+     *
+     * @param entity
+     * @return 包装了char[]的CharBuffer, 内容为[0, limit), 没有内容时返回null
+     * @throws IOException
+     */
+    static CharBuffer readChars(HttpEntity entity) throws IOException {
+        final InputStream instream = entity.getContent();
+        if (instream == null) {
+            return null;
+        }
+        try {
+            long length = entity.getContentLength();
+            // 多留一个char, 刚好读满Content-Length时不需要扩容就能读到EOF
+            char[] chars = new char[length > 0 && length < Integer.MAX_VALUE ? (int) length + 1 : 4096];
+            int count = 0;
+            Reader reader = new InputStreamReader(instream, JsonResponseHandler.getCharset(entity));
+            int n;
+            while ((n = reader.read(chars, count, chars.length - count)) != -1) {
+                count += n;
+                if (count == chars.length) {
+                    char[] grown = new char[chars.length * 2];
+                    System.arraycopy(chars, 0, grown, 0, count);
+                    chars = grown;
+                }
+            }
+            return CharBuffer.wrap(chars, 0, count);
+        } finally {
+            instream.close();
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.github.ufologist.http;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.StatusLine;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.ResponseHandler;
+import org.json.JSONException;
+import org.json.JSONKeyPool;
+import org.json.JSONTokener;
+
+/**
+ * 处理返回NDJSON(JSON Lines, 每行一条JSON记录)数据的HTTP请求
+ *
+ * 直接从entity的InputStream边解码边逐行解析, 每次只解析一条记录(JSONObject/JSONArray),
+ * 只有取走上一条记录后才会继续读取数据, 读取速度由处理速度决定(背压),
+ * 因此上千万条记录的数据也只占用一条记录的内存, 处理过程中HTTP连接一直保持打开.
+ *
+ * <pre>
+ * long count = Request.Get(url).execute().handleResponse(new NdjsonResponseHandler&lt;Long&gt;() {
+ *     protected Long handleRecords(Iterator&lt;Object&gt; records) {
+ *         long count = 0;
+ *         while (records.hasNext()) {
+ *             JSONObject record = (JSONObject) records.next();
+ *             ...
+ *             count++;
+ *         }
+ *         return count;
+ *     }
+ * });
+ * </pre>
+ *
+ * 每个非空行必须正好是一个JSON值, 空行(包括只有空白的行)跳过.
+ * 某一行格式错误时hasNext()抛出带有行号的JSONException, 捕获之后可以继续调用hasNext()读取下一行, 跳过这条错误的记录.
+ * 
+ * 需要在其他线程中处理记录时, 使用{@link #of(BlockingQueue, Object)}交给一个有界的BlockingQueue,
+ * 队列满时读取数据的线程会等待.
+ * 记录的key使用JSONKeyPool.DEFAULT共享.
+ *
+ * @author Sun
+ * @version NdjsonResponseHandler.java 2026-10-18
+ */
+public abstract class NdjsonResponseHandler<T> implements ResponseHandler<T> {
+    @Override
+    public T handleResponse(HttpResponse response) throws ClientProtocolException, IOException {
+        final StatusLine statusLine = response.getStatusLine();
+        final HttpEntity entity = response.getEntity();
+        if (statusLine.getStatusCode() >= HttpStatus.SC_MULTIPLE_CHOICES) {
+            throw new HttpResponseException(statusLine.getStatusCode(),
+                    statusLine.getReasonPhrase());
+        }
+        if (entity == null) {
+            return null;
+        }
+        final InputStream instream = entity.getContent();
+        if (instream == null) {
+            return null;
+        }
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(instream, JsonResponseHandler.getCharset(entity)));
+            return handleRecords(records(reader));
+        } finally {
+            instream.close();
+        }
+    }
+
+    /**
+     * 依次处理response body中的每条记录
+     *
+     * @param records 从entity的InputStream中逐条解析记录的Iterator, next()返回JSONObject/JSONArray等JSON值,
+     *                某一行格式错误或者读取失败时hasNext()/next()抛出JSONException, 格式错误时可以继续读取下一行
+     * @return 处理结果
+     * @throws IOException
+     */
+    protected abstract T handleRecords(Iterator<Object> records) throws IOException;
+
+    /**
+     * 按需从reader中读取下一行并解析成一条记录, 跳过空行
+     */
+    private static Iterator<Object> records(final BufferedReader reader) {
+        return new Iterator<Object>() {
+            private Object next;
+            private long lineNumber;
+
+            @Override
+            public boolean hasNext() {
+                while (this.next == null) {
+                    String line;
+                    try {
+                        line = reader.readLine();
+                    } catch (IOException e) {
+                        throw new JSONException(e);
+                    }
+                    if (line == null) {
+                        return false;
+                    }
+                    this.lineNumber++;
+                    this.next = parse(line, this.lineNumber);
+                }
+                return true;
+            }
+
+            @Override
+            public Object next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Object record = this.next;
+                this.next = null;
+                return record;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * 解析一行, 这一行必须正好是一个JSON值
+     *
+     * @return 记录, 空行返回null
+     */
+    private static Object parse(String line, long lineNumber) {
+        JSONTokener tokener = new JSONTokener(line);
+        tokener.setKeyPool(JSONKeyPool.DEFAULT);
+        try {
+            if (tokener.nextClean() == 0) {
+                return null;
+            }
+            tokener.back();
+            Object record = tokener.nextValue();
+            if (tokener.nextClean() != 0) {
+                throw tokener.syntaxError("Extra text after the record");
+            }
+            return record;
+        } catch (JSONException e) {
+            throw new JSONException("Line " + lineNumber + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * 将每条记录依次放入queue, 队列满时等待, 全部读完后放入end表示结束
+     *
+     * 使用有界的队列(例如ArrayBlockingQueue)时, 最多只有队列容量条记录在内存中.
+     * 在另外的线程中从queue中取记录, 直到取到end或者异常为止:
+     * 请求失败, 读取中断或者某一行格式错误时, 不会放入end, 而是放入抛出的异常(IOException或者JSONException),
+     * 这样就能区分数据是完整的还是被截断了.
+     *
+     * <pre>
+     * Object record;
+     * while ((record = queue.take()) != end) {
+     *     if (record instanceof Exception) {
+     *         throw (Exception) record;
+     *     }
+     *     ...
+     * }
+     * </pre>
+     *
+     * @param queue 接收记录的队列
+     * @param end 表示结束的对象, 不能是记录可能的值, 例如new Object()
+     * @return 返回记录条数的ResponseHandler
+     */
+    public static NdjsonResponseHandler<Long> of(final BlockingQueue<Object> queue, final Object end) {
+        return new NdjsonResponseHandler<Long>() {
+            @Override
+            public Long handleResponse(HttpResponse response) throws ClientProtocolException, IOException {
+                Long count;
+                try {
+                    count = super.handleResponse(response);
+                } catch (IOException e) {
+                    fail(queue, e);
+                    throw e;
+                } catch (RuntimeException e) {
+                    fail(queue, e);
+                    throw e;
+                }
+                try {
+                    queue.put(end);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("interrupted after " + count + " records");
+                }
+                return count;
+            }
+
+            @Override
+            protected Long handleRecords(Iterator<Object> records) throws IOException {
+                long count = 0;
+                try {
+                    while (records.hasNext()) {
+                        queue.put(records.next());
+                        count++;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("interrupted after " + count + " records");
+                }
+                return count;
+            }
+        };
+    }
+
+    /**
+     * 把异常放入queue通知取记录的线程, 已经被中断时不再等待, 队列满时只能放弃
+     */
+    private static void fail(BlockingQueue<Object> queue, Exception e) {
+        if (Thread.currentThread().isInterrupted()) {
+            queue.offer(e);
+            return;
+        }
+        try {
+            queue.put(e);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.github.ufologist.http;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.concurrent.ExecutorService;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.StatusLine;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.ResponseHandler;
+import org.json.JSONArray;
+import org.json.JSONLazyArray;
+
+/**
+ * 处理返回JSON数组的HTTP请求, 使用多个线程并行解析, 返回JSONArray
+ *
+ * 先将response body全部读入内存, 扫描一遍找出每个元素的起止位置(会跳过字符串中的括号和转义字符;
+ * 与JSONArray一样, 只有在值或键开始的位置引号才表示字符串, 例如[it's]中的单引号是文本的一部分),
+ * 再按字符数将元素平均分成parallelism份, 交给线程池同时解析, 最后按原来的顺序组装成JSONArray.
+ * 适合返回几百MB的大数组的接口, 在多核的机器上比new JSONArray(JSONTokener)快得多.
+ *
+ * <pre>
+ * ExecutorService threadpool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+ * JSONArray items = Request.Get(url).execute().handleResponse(new ParallelJsonArrayResponseHandler(threadpool));
+ * </pre>
+ *
+ * 其中一份在调用handleResponse的线程中解析, 因此不要使用正在执行handleResponse的线程池.
+ *
+ * @author Sun
+ * @version ParallelJsonArrayResponseHandler.java 2026-10-18
+ */
+public class ParallelJsonArrayResponseHandler implements ResponseHandler<JSONArray> {
+    private final ExecutorService executor;
+    private final int parallelism;
+
+    /**
+     * @param executor 解析元素的线程池, 分成CPU核数份
+     */
+    public ParallelJsonArrayResponseHandler(ExecutorService executor) {
+        this(executor, Runtime.getRuntime().availableProcessors());
+    }
+    /**
+     * @param executor 解析元素的线程池
+     * @param parallelism 将元素分成多少份同时解析
+     */
+    public ParallelJsonArrayResponseHandler(ExecutorService executor, int parallelism) {
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public JSONArray handleResponse(HttpResponse response) throws ClientProtocolException, IOException {
+        final StatusLine statusLine = response.getStatusLine();
+        final HttpEntity entity = response.getEntity();
+        if (statusLine.getStatusCode() >= HttpStatus.SC_MULTIPLE_CHOICES) {
+            throw new HttpResponseException(statusLine.getStatusCode(),
+                    statusLine.getReasonPhrase());
+        }
+        if (entity == null) {
+            return null;
+        }
+        CharBuffer chars = LazyJsonResponseHandler.readChars(entity);
+        if (chars == null) {
+            return null;
+        }
+        return new JSONLazyArray(chars.array(), 0, chars.limit()).toJSONArray(this.executor, this.parallelism);
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.ufologist.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.StatusLine;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.ResponseHandler;
+import org.json.JSONKeyPool;
+import org.json.JSONObject;
+import org.json.JSONProjection;
+import org.json.JSONTokener;
+
+/**
+ * 处理返回JSON数据的HTTP请求, 只解析指定路径上的字段, 返回JSONObject
+ *
+ * 直接从entity的InputStream边解码边解析, 不在路径上的字段(字符串, 数字, 整个对象或数组)直接跳过, 不生成任何对象,
+ * 适合从很大的返回数据中只取几个字段的接口, 耗时只与数据的字节数成正比, 与对象个数无关.
+ *
+ * <pre>
+ * Request.Get(url).execute().handleResponse(
+ *         new ProjectionJsonResponseHandler("data.items[*].id", "meta.total"));
+ * // {"data":{"items":[{"id":1},{"id":2}]},"meta":{"total":2}}
+ * </pre>
+ *
+ * 路径的写法见JSONProjection, 被跳过的字段的key使用JSONKeyPool.DEFAULT共享.
+ *
+ * @author Sun
+ * @version ProjectionJsonResponseHandler.java 2026-10-18
+ */
+public class ProjectionJsonResponseHandler implements ResponseHandler<JSONObject> {
+    private final JSONProjection projection;
+
+    /**
+     * @param paths 需要解析的字段路径, 例如data.items[*].id
+     */
+    public ProjectionJsonResponseHandler(String... paths) {
+        this(new JSONProjection(paths));
+    }
+    /**
+     * @param projection 可以在多个线程中共用的JSONProjection
+     */
+    public ProjectionJsonResponseHandler(JSONProjection projection) {
+        this.projection = projection;
+    }
+
+    @Override
+    public JSONObject handleResponse(HttpResponse response) throws ClientProtocolException, IOException {
+        final StatusLine statusLine = response.getStatusLine();
+        final HttpEntity entity = response.getEntity();
+        if (statusLine.getStatusCode() >= HttpStatus.SC_MULTIPLE_CHOICES) {
+            throw new HttpResponseException(statusLine.getStatusCode(),
+                    statusLine.getReasonPhrase());
+        }
+        if (entity == null) {
+            return null;
+        }
+        final InputStream instream = entity.getContent();
+        if (instream == null) {
+            return null;
+        }
+        try {
+            JSONTokener tokener = new JSONTokener(new InputStreamReader(instream, JsonResponseHandler.getCharset(entity)));
+            tokener.setKeyPool(JSONKeyPool.DEFAULT);
+            return this.projection.parseObject(tokener);
+        } finally {
+            instream.close();
+        }
+    }
+}
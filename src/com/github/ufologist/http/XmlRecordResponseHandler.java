@@ -0,0 +1,88 @@
+package com.github.ufologist.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+
+import org.apache.http.Consts;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.StatusLine;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.entity.ContentType;
+import org.json.XMLRecordReader;
+import org.json.XMLTokener;
+
+/**
+ * 处理返回XML数据的HTTP请求, 将指定路径上重复出现的元素逐个转换成JSONObject
+ *
+ * 直接从entity的InputStream边解码边解析, 路径以外的内容直接跳过, 每次只转换一个元素,
+ * 适合返回几百MB的SOAP或者feed之类的XML接口, XML.toJSONObject需要先读成String而且会将所有元素放在一个JSONObject中.
+ *
+ * <pre>
+ * long count = Request.Get(url).execute().handleResponse(new XmlRecordResponseHandler&lt;Long&gt;("feed/entry") {
+ *     protected Long handleRecords(XMLRecordReader records) {
+ *         long count = 0;
+ *         JSONObject record;
+ *         while ((record = records.next()) != null) {
+ *             JSONObject entry = record.getJSONObject("entry");
+ *             ...
+ *             count++;
+ *         }
+ *         return count;
+ *     }
+ * });
+ * </pre>
+ *
+ * 路径的写法见XMLRecordReader, content-type中没有指定编码时按照XML的默认编码UTF-8读取.
+ *
+ * @author Sun
+ * @version XmlRecordResponseHandler.java 2026-10-18
+ */
+public abstract class XmlRecordResponseHandler<T> implements ResponseHandler<T> {
+    private final String path;
+
+    /**
+     * @param path 从根元素到需要转换的元素的标签名, 以/分隔, 例如feed/entry
+     */
+    public XmlRecordResponseHandler(String path) {
+        this.path = path;
+    }
+
+    @Override
+    public T handleResponse(HttpResponse response) throws ClientProtocolException, IOException {
+        final StatusLine statusLine = response.getStatusLine();
+        final HttpEntity entity = response.getEntity();
+        if (statusLine.getStatusCode() >= HttpStatus.SC_MULTIPLE_CHOICES) {
+            throw new HttpResponseException(statusLine.getStatusCode(),
+                    statusLine.getReasonPhrase());
+        }
+        if (entity == null) {
+            return null;
+        }
+        final InputStream instream = entity.getContent();
+        if (instream == null) {
+            return null;
+        }
+        try {
+            Charset charset = ContentType.getOrDefault(entity).getCharset();
+            XMLTokener tokener = new XMLTokener(new InputStreamReader(instream, charset != null ? charset : Consts.UTF_8));
+            return handleRecords(new XMLRecordReader(tokener, this.path));
+        } finally {
+            instream.close();
+        }
+    }
+
+    /**
+     * 依次处理response body中的每个元素
+     *
+     * @param records 从entity的InputStream中逐个转换元素的XMLRecordReader, 格式错误时next()抛出JSONException
+     * @return 处理结果
+     * @throws IOException
+     */
+    protected abstract T handleRecords(XMLRecordReader records) throws IOException;
+}
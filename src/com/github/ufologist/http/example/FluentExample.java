@@ -1,7 +1,10 @@
 package com.github.ufologist.http.example;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -21,10 +24,12 @@ import org.apache.http.client.fluent.Request;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.impl.client.BasicCookieStore;
+import org.apache.http.impl.client.BasicResponseHandler;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.impl.cookie.BasicClientCookie;
 import org.json.JSONObject;
 
+import com.github.ufologist.http.BatchExecutor;
 import com.github.ufologist.http.HttpToolbox;
 
 /**
@@ -37,6 +42,9 @@ import com.github.ufologist.http.HttpToolbox;
  * MaxPerRoute: 100, MaxTotal: 200.
  * 具体请查看Request.execute
  * 
+ * 如果需要更大的连接池, 可以通过HttpToolbox.configConnectionPool(或者在config.json中配置connectionPool)
+ * 替换掉这个默认的HttpClient, 之后Request.execute都会使用新的连接池.
+ * 
  * @author Sun
  * @version FluentExample.java 2014-11-29 下午1:11:12
  * @see http://hc.apache.org/httpcomponents-client-ga/tutorial/html/fluent.html
@@ -60,6 +68,8 @@ public class FluentExample {
 
         // 多线程并发模式, 平均1.3毫秒发一个请求(共发200个)
         testFluentConcurrent("http://localhost:8080/index.jsp", 200);
+        // 批量模式, 最多同时发100个请求, 按完成的先后顺序取得结果
+        testFluentBatch("http://localhost:8080/index.jsp", 10000, 100);
     }
 
     private static void testFluentGet(String url) {
@@ -200,4 +210,27 @@ public class FluentExample {
         }
         threadpool.shutdown();
     }
+
+    /**
+     * 使用BatchExecutor批量发送请求, 不需要自己管理线程池和Future队列
+     * JDK21以上会使用虚拟线程, 同时执行的请求数不超过concurrency, 因此连接池也只需要concurrency个连接
+     */
+    private static void testFluentBatch(String url, int count, int concurrency) {
+        List<Request> requests = new ArrayList<Request>(count);
+        for (int i = 0; i < count; i++) {
+            requests.add(Request.Get(url + "?_=" + i));
+        }
+
+        BatchExecutor batch = BatchExecutor.newInstance(concurrency);
+        Iterator<BatchExecutor.Result<String>> results = batch.execute(requests, new BasicResponseHandler());
+        while (results.hasNext()) {
+            BatchExecutor.Result<String> result = results.next();
+            if (result.isSuccess()) {
+                System.out.println("Request completed: " + result.getRequest());
+            } else {
+                System.out.println(result.getException().getMessage() + ": " + result.getRequest());
+            }
+        }
+        batch.shutdown();
+    }
 }
@@ -12,6 +12,8 @@ import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
 import org.apache.http.impl.nio.client.HttpAsyncClients;
 
+import com.github.ufologist.http.AdaptiveConcurrencyLimiter;
+
 /**
  * 异步 HTTP 请求
  * 
@@ -21,6 +23,41 @@ import org.apache.http.impl.nio.client.HttpAsyncClients;
 public class HttpAsyncClientExample {
     public static void main(String[] args) throws Exception {
         testAsync("http://localhost:8080/index.jsp", 200);
+        testAsyncWithLimiter("http://localhost:8080/index.jsp", 50000);
+    }
+
+    /**
+     * 请求数很多时不再按照请求数来设置连接池的大小, 而是由AdaptiveConcurrencyLimiter根据响应时间和失败率自动调整并发数
+     */
+    private static void testAsyncWithLimiter(String url, int count) throws InterruptedException, ExecutionException {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.custom().setMaxLimit(500);
+        CloseableHttpAsyncClient httpclient = HttpAsyncClients.custom()
+                                                              .setMaxConnPerRoute(500)
+                                                              .setMaxConnTotal(500).build();
+        try {
+            httpclient.start();
+
+            Queue<Future<HttpResponse>> queue = new LinkedList<Future<HttpResponse>>();
+            for (int i = 0; i < count; i++) {
+                // 超过limit时会在这里阻塞, 直到有请求完成
+                queue.add(limiter.execute(httpclient, new HttpGet(url + "?_=" + i), null));
+            }
+
+            while (!queue.isEmpty()) {
+                Future<HttpResponse> future = queue.remove();
+                try {
+                    System.out.println("->" + future.get().getStatusLine());
+                } catch (ExecutionException ex) {
+                    ex.printStackTrace(System.err);
+                }
+            }
+        } finally {
+            try {
+                httpclient.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
     }
 
     private static void testAsync(String url, int count) throws InterruptedException, ExecutionException {
@@ -0,0 +1,304 @@
+package com.github.ufologist.http.metrics;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpConnection;
+import org.apache.http.HttpConnectionMetrics;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.pool.ConnPoolControl;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
+import org.json.JSONObject;
+
+/**
+ * HTTP请求的统计数据: 每个route的响应时间分布, 取得连接的等待时间, 发送/接收的字节数, 状态码计数, 以及连接池的使用情况
+ * 
+ * 通过request/response拦截器记录, 不输出任何日志, 开销只有几次原子操作, 可以在生产环境中一直开启.
+ * 
+ * <pre>
+ * HttpMetrics metrics = new HttpMetrics();
+ * CloseableHttpClient httpclient = metrics.instrument(HttpClients.custom()).build();
+ * ...
+ * System.out.println(metrics.snapshot().toString(4));
+ * </pre>
+ * 
+ * 字节数是从连接的HttpConnectionMetrics中读取的实际收发的字节数, 包括header, chunked和压缩的entity也按照传输的字节计算.
+ * 收到response header时先计入已经收发的字节, response body读完归还连接时再计入剩下的(newConnectionManager创建的连接池);
+ * 异步请求或者其他连接池, response body的字节在连接下次复用时才计入.
+ * 
+ * @author Sun
+ * @version HttpMetrics.java 2026-10-18
+ */
+public class HttpMetrics implements HttpMetricsMBean {
+    public static final String DEFAULT_OBJECT_NAME = "com.github.ufologist.http:type=HttpMetrics";
+
+    private static final String START_TIME = "com.github.ufologist.http.metrics.start";
+    private static final PoolStats EMPTY_POOL_STATS = new PoolStats(0, 0, 0, 0);
+
+    private final ConcurrentMap<HttpHost, RouteMetrics> routes = new ConcurrentHashMap<HttpHost, RouteMetrics>();
+    private volatile ConnPoolControl<?> pool;
+
+    private final HttpRequestInterceptor requestInterceptor = new HttpRequestInterceptor() {
+        @Override
+        public void process(HttpRequest request, HttpContext context) throws HttpException, IOException {
+            context.setAttribute(START_TIME, System.nanoTime());
+
+            RouteMetrics route = getRoute(context);
+            if (route != null) {
+                route.recordRequest();
+                // 异步请求此时已经取得了连接, 计入这个连接上一个response body的字节
+                recordBytes(route, context);
+            }
+        }
+    };
+
+    private final HttpResponseInterceptor responseInterceptor = new HttpResponseInterceptor() {
+        @Override
+        public void process(HttpResponse response, HttpContext context) throws HttpException, IOException {
+            Object start = context.getAttribute(START_TIME);
+            RouteMetrics route = getRoute(context);
+            if (start == null || route == null) {
+                return;
+            }
+
+            route.recordResponse(response.getStatusLine().getStatusCode(),
+                    System.nanoTime() - (Long) start);
+            recordBytes(route, context);
+        }
+    };
+
+    /**
+     * 计入context中的连接从上次计入之后收发的字节数, 同步请求在取得连接之前context中没有连接, 或者是已经归还的连接
+     */
+    private static void recordBytes(RouteMetrics route, HttpContext context) {
+        Object conn = context.getAttribute(HttpCoreContext.HTTP_CONNECTION);
+        if (conn instanceof HttpConnection && ((HttpConnection) conn).isOpen()) {
+            recordBytes(route, ((HttpConnection) conn).getMetrics());
+        }
+    }
+
+    /**
+     * 连接同时只会被一个请求使用, 读取之后reset, 每个字节只计入一次
+     */
+    private static void recordBytes(RouteMetrics route, HttpConnectionMetrics metrics) {
+        route.recordBytes(metrics.getSentBytesCount(), metrics.getReceivedBytesCount());
+        metrics.reset();
+    }
+
+    /**
+     * 给HttpClient加上统计用的拦截器
+     */
+    public HttpClientBuilder instrument(HttpClientBuilder builder) {
+        return builder.addInterceptorFirst(this.requestInterceptor)
+                      .addInterceptorLast(this.responseInterceptor);
+    }
+
+    /**
+     * 给异步HttpClient加上统计用的拦截器
+     */
+    public HttpAsyncClientBuilder instrument(HttpAsyncClientBuilder builder) {
+        return builder.addInterceptorFirst(this.requestInterceptor)
+                      .addInterceptorLast(this.responseInterceptor);
+    }
+
+    /**
+     * 统计这个连接池的使用情况
+     */
+    public void bindPool(ConnPoolControl<?> pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * 创建一个会记录取得连接等待时间的连接池, 并统计它的使用情况
+     * 
+     * @param timeToLive 连接的最长存活时间(毫秒), 小于等于0表示不限制
+     */
+    public PoolingHttpClientConnectionManager newConnectionManager(long timeToLive) {
+        PoolingHttpClientConnectionManager connManager = new InstrumentedConnectionManager(timeToLive);
+        bindPool(connManager);
+        return connManager;
+    }
+
+    /**
+     * 注册到JMX
+     * 
+     * @param name 例如DEFAULT_OBJECT_NAME
+     */
+    public void registerMBean(String name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(name);
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(this, objectName);
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return route的统计数据, 还没有请求过的route返回null
+     */
+    public RouteMetrics getRoute(HttpHost route) {
+        return this.routes.get(route);
+    }
+
+    private RouteMetrics getRoute(HttpContext context) {
+        Object target = context.getAttribute(HttpCoreContext.HTTP_TARGET_HOST);
+        return target instanceof HttpHost ? getOrCreateRoute((HttpHost) target) : null;
+    }
+
+    private RouteMetrics getOrCreateRoute(HttpHost host) {
+        if (host.getPort() < 0) { // 与连接池中的route保持一致
+            int port = "https".equalsIgnoreCase(host.getSchemeName()) ? 443 : 80;
+            host = new HttpHost(host.getHostName(), port, host.getSchemeName());
+        }
+        RouteMetrics route = this.routes.get(host);
+        if (route == null) {
+            RouteMetrics newRoute = new RouteMetrics();
+            route = this.routes.putIfAbsent(host, newRoute);
+            if (route == null) {
+                route = newRoute;
+            }
+        }
+        return route;
+    }
+
+    private PoolStats getPoolStats() {
+        ConnPoolControl<?> pool = this.pool;
+        return pool != null ? pool.getTotalStats() : EMPTY_POOL_STATS;
+    }
+
+    /**
+     * 所有统计数据, 时间的单位为毫秒
+     */
+    public JSONObject snapshot() {
+        PoolStats stats = getPoolStats();
+        JSONObject pool = new JSONObject();
+        pool.put("leased", stats.getLeased());
+        pool.put("available", stats.getAvailable());
+        pool.put("pending", stats.getPending());
+        pool.put("max", stats.getMax());
+
+        JSONObject routes = new JSONObject();
+        for (Entry<HttpHost, RouteMetrics> entry : this.routes.entrySet()) {
+            routes.put(entry.getKey().toURI(), entry.getValue().snapshot());
+        }
+
+        JSONObject json = new JSONObject();
+        json.put("requests", getRequestCount());
+        json.put("pool", pool);
+        json.put("routes", routes);
+        return json;
+    }
+
+    @Override
+    public long getRequestCount() {
+        long count = 0;
+        for (RouteMetrics route : this.routes.values()) {
+            count += route.getRequests();
+        }
+        return count;
+    }
+
+    @Override
+    public int getLeasedConnections() {
+        return getPoolStats().getLeased();
+    }
+
+    @Override
+    public int getAvailableConnections() {
+        return getPoolStats().getAvailable();
+    }
+
+    @Override
+    public int getPendingConnections() {
+        return getPoolStats().getPending();
+    }
+
+    @Override
+    public int getMaxConnections() {
+        return getPoolStats().getMax();
+    }
+
+    @Override
+    public String getSnapshot() {
+        return snapshot().toString();
+    }
+
+    @Override
+    public void reset() {
+        this.routes.clear();
+    }
+
+    /**
+     * 记录取得连接等待时间的连接池, 归还连接时计入response body的字节数
+     */
+    private class InstrumentedConnectionManager extends PoolingHttpClientConnectionManager {
+        private final ConcurrentMap<HttpClientConnection, RouteMetrics> leased =
+                new ConcurrentHashMap<HttpClientConnection, RouteMetrics>();
+
+        InstrumentedConnectionManager(long timeToLive) {
+            super(timeToLive > 0 ? timeToLive : -1, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public ConnectionRequest requestConnection(final HttpRoute route, Object state) {
+            final ConnectionRequest request = super.requestConnection(route, state);
+            return new ConnectionRequest() {
+                @Override
+                public HttpClientConnection get(long timeout, TimeUnit tunit)
+                        throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                    long start = System.nanoTime();
+                    RouteMetrics metrics = getOrCreateRoute(route.getTargetHost());
+                    try {
+                        HttpClientConnection conn = request.get(timeout, tunit);
+                        InstrumentedConnectionManager.this.leased.put(conn, metrics);
+                        return conn;
+                    } finally {
+                        metrics.recordLeaseWait(System.nanoTime() - start);
+                    }
+                }
+
+                @Override
+                public boolean cancel() {
+                    return request.cancel();
+                }
+            };
+        }
+
+        @Override
+        public void releaseConnection(HttpClientConnection managedConn, Object state,
+                long keepalive, TimeUnit tunit) {
+            RouteMetrics metrics = this.leased.remove(managedConn);
+            if (metrics != null) {
+                recordBytes(metrics, managedConn.getMetrics());
+            }
+            super.releaseConnection(managedConn, state, keepalive, tunit);
+        }
+    }
+}
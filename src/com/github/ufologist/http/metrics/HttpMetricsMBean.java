@@ -0,0 +1,26 @@
+package com.github.ufologist.http.metrics;
+
+/**
+ * 通过JMX暴露的统计数据
+ * 
+ * @author Sun
+ * @version HttpMetricsMBean.java 2026-10-18
+ */
+public interface HttpMetricsMBean {
+    long getRequestCount();
+
+    int getLeasedConnections();
+
+    int getAvailableConnections();
+
+    int getPendingConnections();
+
+    int getMaxConnections();
+
+    /**
+     * @return JSON格式的全部统计数据
+     */
+    String getSnapshot();
+
+    void reset();
+}
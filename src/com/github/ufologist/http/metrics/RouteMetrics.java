@@ -0,0 +1,111 @@
+package com.github.ufologist.http.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.json.JSONObject;
+
+/**
+ * 一个route(scheme://host:port)的统计数据
+ * 
+ * @author Sun
+ * @version RouteMetrics.java 2026-10-18
+ */
+public class RouteMetrics {
+    private static final int MAX_STATUS = 600;
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    private final Histogram latency = new Histogram();
+    private final Histogram leaseWait = new Histogram();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLongArray statusCodes = new AtomicLongArray(MAX_STATUS);
+
+    void recordRequest() {
+        this.requests.incrementAndGet();
+    }
+
+    void recordResponse(int status, long latency) {
+        this.latency.record(latency);
+        if (status >= 0 && status < MAX_STATUS) {
+            this.statusCodes.incrementAndGet(status);
+        }
+    }
+
+    void recordBytes(long sent, long received) {
+        if (sent > 0) {
+            this.bytesSent.addAndGet(sent);
+        }
+        if (received > 0) {
+            this.bytesReceived.addAndGet(received);
+        }
+    }
+
+    void recordLeaseWait(long nanos) {
+        this.leaseWait.record(nanos);
+    }
+
+    /**
+     * @return 响应时间(纳秒)
+     */
+    public Histogram getLatency() {
+        return this.latency;
+    }
+
+    /**
+     * @return 从连接池中取得连接的等待时间(纳秒)
+     */
+    public Histogram getLeaseWait() {
+        return this.leaseWait;
+    }
+
+    public long getRequests() {
+        return this.requests.get();
+    }
+
+    public long getBytesSent() {
+        return this.bytesSent.get();
+    }
+
+    public long getBytesReceived() {
+        return this.bytesReceived.get();
+    }
+
+    public long getStatusCount(int status) {
+        return status >= 0 && status < MAX_STATUS ? this.statusCodes.get(status) : 0;
+    }
+
+    public void reset() {
+        this.latency.reset();
+        this.leaseWait.reset();
+        this.requests.set(0);
+        this.bytesSent.set(0);
+        this.bytesReceived.set(0);
+        for (int i = 0; i < MAX_STATUS; i++) {
+            this.statusCodes.set(i, 0);
+        }
+    }
+
+    /**
+     * 时间的单位为毫秒
+     */
+    public JSONObject snapshot() {
+        JSONObject status = new JSONObject();
+        for (int i = 0; i < MAX_STATUS; i++) {
+            long count = this.statusCodes.get(i);
+            if (count > 0) {
+                status.put(String.valueOf(i), count);
+            }
+        }
+
+        JSONObject json = new JSONObject();
+        json.put("requests", getRequests());
+        json.put("latency", this.latency.snapshot(NANOS_PER_MILLI));
+        json.put("leaseWait", this.leaseWait.snapshot(NANOS_PER_MILLI));
+        json.put("bytesSent", getBytesSent());
+        json.put("bytesReceived", getBytesReceived());
+        json.put("status", status);
+        return json;
+    }
+}
@@ -48,6 +48,7 @@ import org.apache.http.HttpHost;
 import org.apache.http.HttpVersion;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.HttpClient;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpGet;
@@ -59,6 +60,7 @@ import org.apache.http.client.methods.HttpTrace;
 import org.apache.http.client.utils.URLEncodedUtils;
 import org.apache.http.entity.ContentType;
 import org.apache.http.protocol.HTTP;
+import org.json.JSONByteWriter;
 
 public class Request {
 
@@ -66,6 +68,9 @@ public class Request {
     public static final Locale DATE_LOCALE = Locale.US;
     public static final TimeZone TIME_ZONE = TimeZone.getTimeZone("GMT");
 
+    // 替换默认共用的HttpClient(Executor.CLIENT), 例如使用自定义的连接池
+    private static volatile HttpClient defaultHttpClient;
+
     private final InternalHttpRequest request;
     private final RequestConfig.Builder configBuilder;
 
@@ -140,7 +145,21 @@ public class Request {
 
     public Response execute() throws ClientProtocolException, IOException {
         this.request.setConfig(this.configBuilder.build());
-        return new Response(Executor.CLIENT.execute(this.request));
+        return new Response(getDefaultHttpClient().execute(this.request));
+    }
+
+    /**
+     * 设置execute()使用的HttpClient, 一般在程序启动时设置一次
+     * 
+     * @param httpclient 为null时恢复使用Executor.CLIENT
+     */
+    public static void setDefaultHttpClient(final HttpClient httpclient) {
+        defaultHttpClient = httpclient;
+    }
+
+    public static HttpClient getDefaultHttpClient() {
+        final HttpClient httpclient = defaultHttpClient;
+        return httpclient != null ? httpclient : Executor.CLIENT;
     }
 
     public void abort() throws UnsupportedOperationException {
@@ -351,6 +370,15 @@ public class Request {
         return body(new InternalInputStreamEntity(instream, -1, contentType));
     }
 
+    /**
+     * 将JSON(JSONObject, JSONArray, Map, Collection等)直接序列化成UTF-8的字节作为body, 不经过String
+     */
+    public Request bodyJSON(final Object json) {
+        final JSONByteWriter writer = new JSONByteWriter();
+        writer.value(json);
+        return body(new InternalByteArrayEntity(writer.buffer(), 0, writer.size(), ContentType.APPLICATION_JSON));
+    }
+
     @Override
     public String toString() {
         return this.request.getRequestLine().toString();
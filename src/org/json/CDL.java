@@ -1,5 +1,19 @@
 package org.json;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
 /*
 Copyright (c) 2002 JSON.org
 
@@ -40,6 +54,11 @@ SOFTWARE.
  * A comma delimited list can be converted into a JSONArray of JSONObjects.
  * The names for the elements in the JSONObjects can be taken from the names
  * in the first row.
+ * <p>
+ * These methods hold the whole table in memory. To convert a large table one
+ * row at a time, use {@link CDLReader} and {@link CDLWriter}. A large file
+ * can be converted on several threads with
+ * {@link #toJSONArray(File, Charset, ExecutorService, int)}.
  * @author JSON.org
  * @version 2014-05-03
  */
@@ -87,28 +106,39 @@ public class CDL {
     }
 
     /**
-     * Produce a JSONArray of strings from a row of comma delimited values.
+     * Read a row of comma delimited values. A row ends with a NEWLINE, a
+     * RETURN, or a RETURN NEWLINE pair.
      * @param x A JSONTokener of the source text.
-     * @return A JSONArray of strings.
+     * @param values A list that receives the values of the row. It is
+     *  cleared first.
+     * @return false if there is no row: at the end of the text, or at an
+     *  empty line.
      * @throws JSONException
      */
-    public static JSONArray rowToJSONArray(JSONTokener x) throws JSONException {
-        JSONArray ja = new JSONArray();
+    static boolean readRow(JSONTokener x, List<String> values)
+            throws JSONException {
+        values.clear();
         for (;;) {
             String value = getValue(x);
             char c = x.next();
             if (value == null ||
-                    (ja.length() == 0 && value.length() == 0 && c != ',')) {
-                return null;
+                    (values.isEmpty() && value.length() == 0 && c != ',')) {
+                return false;
             }
-            ja.put(value);
+            values.add(value);
             for (;;) {
                 if (c == ',') {
                     break;
                 }
                 if (c != ' ') {
-                    if (c == '\n' || c == '\r' || c == 0) {
-                        return ja;
+                    if (c == '\r') {
+                        if (x.next() != '\n') {
+                            x.back();
+                        }
+                        return true;
+                    }
+                    if (c == '\n' || c == 0) {
+                        return true;
                     }
                     throw x.syntaxError("Bad character '" + c + "' (" +
                             (int)c + ").");
@@ -118,6 +148,24 @@ public class CDL {
         }
     }
 
+    /**
+     * Produce a JSONArray of strings from a row of comma delimited values.
+     * @param x A JSONTokener of the source text.
+     * @return A JSONArray of strings.
+     * @throws JSONException
+     */
+    public static JSONArray rowToJSONArray(JSONTokener x) throws JSONException {
+        List<String> values = new ArrayList<String>();
+        if (!readRow(x, values)) {
+            return null;
+        }
+        JSONArray ja = new JSONArray();
+        for (int i = 0; i < values.size(); i += 1) {
+            ja.put(values.get(i));
+        }
+        return ja;
+    }
+
     /**
      * Produce a JSONObject from a row of comma delimited text, using a
      * parallel JSONArray of strings to provides the names of the elements.
@@ -147,28 +195,37 @@ public class CDL {
             if (i > 0) {
                 sb.append(',');
             }
-            Object object = ja.opt(i);
-            if (object != null) {
-                String string = object.toString();
-                if (string.length() > 0 && (string.indexOf(',') >= 0 ||
-                        string.indexOf('\n') >= 0 || string.indexOf('\r') >= 0 ||
-                        string.indexOf(0) >= 0 || string.charAt(0) == '"')) {
-                    sb.append('"');
-                    int length = string.length();
-                    for (int j = 0; j < length; j += 1) {
-                        char c = string.charAt(j);
-                        if (c >= ' ' && c != '"') {
-                            sb.append(c);
-                        }
+            appendValue(sb, ja.opt(i));
+        }
+        sb.append('\n');
+        return sb.toString();
+    }
+
+    /**
+     * Append a value of a comma delimited row. A value containing the comma
+     * character is quoted, and troublesome characters removed from it.
+     * @param sb A StringBuilder.
+     * @param object The value, or null for an empty value.
+     */
+    static void appendValue(StringBuilder sb, Object object) {
+        if (object != null) {
+            String string = object.toString();
+            if (string.length() > 0 && (string.indexOf(',') >= 0 ||
+                    string.indexOf('\n') >= 0 || string.indexOf('\r') >= 0 ||
+                    string.indexOf(0) >= 0 || string.charAt(0) == '"')) {
+                sb.append('"');
+                int length = string.length();
+                for (int j = 0; j < length; j += 1) {
+                    char c = string.charAt(j);
+                    if (c >= ' ' && c != '"') {
+                        sb.append(c);
                     }
-                    sb.append('"');
-                } else {
-                    sb.append(string);
                 }
+                sb.append('"');
+            } else {
+                sb.append(string);
             }
         }
-        sb.append('\n');
-        return sb.toString();
     }
 
     /**
@@ -234,6 +291,201 @@ public class CDL {
     }
 
 
+    /**
+     * Produce a JSONArray of JSONObjects from a comma delimited text file,
+     * using the first row as a source of names, parsing the rows on several
+     * threads. The file is mapped into memory and read as in
+     * {@link #toJSONArray(ByteBuffer, Charset, ExecutorService, int)}.
+     * @param file A file of comma delimited text, smaller than 2 GB.
+     * @param charset The encoding of the file. Its line breaks must be the
+     *  ASCII bytes, as in UTF-8, ISO-8859-1 or GBK.
+     * @param executor The executor that runs the tasks. It must not be
+     *  waiting on the calling thread.
+     * @param parallelism The number of tasks, such as the number of
+     *  processors.
+     * @return A JSONArray of JSONObjects.
+     * @throws JSONException If there is a syntax error, the file cannot be
+     *  read, or the calling thread is interrupted.
+     */
+    public static JSONArray toJSONArray(File file, Charset charset,
+            ExecutorService executor, int parallelism) throws JSONException {
+        try {
+            FileInputStream in = new FileInputStream(file);
+            try {
+                FileChannel channel = in.getChannel();
+                long size = channel.size();
+                if (size > Integer.MAX_VALUE) {
+                    throw new JSONException("File too large to map: " + file);
+                }
+                return toJSONArray(
+                        channel.map(FileChannel.MapMode.READ_ONLY, 0, size),
+                        charset, executor, parallelism);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+    }
+
+    /**
+     * Produce a JSONArray of JSONObjects from comma delimited bytes, using the
+     * first row as a source of names, parsing the rows on several threads.
+     * The rows after the first are split into ranges of about the same
+     * number of bytes, one per task, each starting after a line break; the
+     * first range is parsed on the calling thread and the others by the
+     * executor. Since a quoted value may not contain a line break, every
+     * line break ends a row, or is in a row that is an error in the range
+     * before it. The result is the same as that of
+     * {@link #toJSONArray(JSONTokener)} on the decoded text, apart from the
+     * positions in error messages.
+     * @param bytes The bytes from their position to their limit, such as a
+     *  MappedByteBuffer. The position is not changed.
+     * @param charset The encoding of the bytes. Its line breaks must be the
+     *  ASCII bytes, as in UTF-8, ISO-8859-1 or GBK.
+     * @param executor The executor that runs the tasks. It must not be
+     *  waiting on the calling thread.
+     * @param parallelism The number of tasks, such as the number of
+     *  processors.
+     * @return A JSONArray of JSONObjects.
+     * @throws JSONException If there is a syntax error, or the calling
+     *  thread is interrupted.
+     */
+    public static JSONArray toJSONArray(ByteBuffer bytes, Charset charset,
+            ExecutorService executor, int parallelism) throws JSONException {
+        byte[] crlf = "\r\n".getBytes(charset);
+        if (crlf.length != 2 || crlf[0] != '\r' || crlf[1] != '\n') {
+            throw new IllegalArgumentException(
+                    "Line breaks are not ASCII in " + charset);
+        }
+        int start = bytes.position();
+        int end = bytes.limit();
+        int body = nextRow(bytes, start, end);
+        List<String> values = new ArrayList<String>();
+        if (!readRow(new Rows(bytes, start, body, charset, null).tokener(),
+                values)) {
+            return null;
+        }
+        String[] names = values.toArray(new String[values.size()]);
+
+        int tasks = Math.max(1, parallelism);
+        List<Rows> ranges = new ArrayList<Rows>(tasks);
+        int from = body;
+        for (int task = 1; task <= tasks && from < end; task += 1) {
+            int to = task == tasks ? end : nextRow(bytes,
+                    (int) (body + (long) (end - body) * task / tasks) - 1, end);
+            if (to > from) {
+                ranges.add(new Rows(bytes, from, to, charset, names));
+                from = to;
+            }
+        }
+        List<Future<Rows>> futures = new ArrayList<Future<Rows>>(ranges.size());
+        JSONArray ja = new JSONArray();
+        try {
+            for (int i = 1; i < ranges.size(); i += 1) {
+                futures.add(executor.submit(ranges.get(i)));
+            }
+            for (int i = 0; i < ranges.size(); i += 1) {
+                Rows rows = i == 0 ? ranges.get(0).call()
+                        : futures.get(i - 1).get();
+                for (int j = 0; j < rows.objects.size(); j += 1) {
+                    ja.put(rows.objects.get(j));
+                }
+                if (rows.ended) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JSONException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof JSONException) {
+                throw (JSONException) e.getCause();
+            }
+            throw new JSONException(e.getCause());
+        } finally {
+            for (int i = 0; i < futures.size(); i += 1) {
+                futures.get(i).cancel(true);
+            }
+        }
+        if (ja.length() == 0) {
+            return null;
+        }
+        return ja;
+    }
+
+    /**
+     * Find the start of the row after the line break at or after index i.
+     */
+    private static int nextRow(ByteBuffer bytes, int i, int end) {
+        while (i < end) {
+            byte b = bytes.get(i);
+            i += 1;
+            if (b == '\n') {
+                return i;
+            }
+            if (b == '\r') {
+                return i < end && bytes.get(i) == '\n' ? i + 1 : i;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * The rows of a range of bytes that starts at the start of a row and
+     * ends after a line break or at the end of the text.
+     */
+    private static final class Rows implements Callable<Rows> {
+        private final ByteBuffer bytes;
+        private final Charset charset;
+        private final String[] names;
+        final List<JSONObject> objects = new ArrayList<JSONObject>();
+
+        /**
+         * Whether the table ended inside the range, at an empty line.
+         */
+        boolean ended;
+
+        Rows(ByteBuffer bytes, int from, int to, Charset charset,
+                String[] names) {
+            this.bytes = bytes.duplicate();
+            this.bytes.limit(to);
+            this.bytes.position(from);
+            this.charset = charset;
+            this.names = names;
+        }
+
+        JSONTokener tokener() {
+            CharBuffer chars = this.charset.decode(this.bytes);
+            return new JSONTokener(chars.array(),
+                    chars.arrayOffset() + chars.position(),
+                    chars.arrayOffset() + chars.limit());
+        }
+
+        /**
+         * Parse the rows of the range, stopping if the thread is interrupted,
+         * as when the task is cancelled because another range failed.
+         */
+        public Rows call() throws JSONException {
+            JSONTokener x = this.tokener();
+            List<String> values = new ArrayList<String>();
+            while (readRow(x, values)) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new JSONException(new InterruptedException());
+                }
+                JSONObject jo = new JSONObject();
+                for (int i = 0; i < this.names.length; i += 1) {
+                    jo.put(this.names[i],
+                            i < values.size() ? values.get(i) : null);
+                }
+                this.objects.add(jo);
+            }
+            this.ended = !x.isPastEnd();
+            return this;
+        }
+    }
+
+
     /**
      * Produce a comma delimited text from a JSONArray of JSONObjects. The
      * first row will be a list of names obtained by inspecting the first
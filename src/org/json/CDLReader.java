@@ -0,0 +1,141 @@
+package org.json;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CDLReader reads the rows of comma delimited text one at a time, as the
+ * text is read. Each row is a String array of its values, and the names of
+ * the columns are kept once for the whole table, instead of in a JSONObject
+ * for every row as {@link CDL#toJSONArray(JSONTokener)} makes them. With a
+ * JSONTokener on a Reader, memory depends only on the size of one row, not
+ * on the size of the table:
+ * <pre>
+ * CDLReader rows = new CDLReader(new JSONTokener(reader));
+ * int id = rows.indexOf("id");
+ * String[] row;
+ * while ((row = rows.next()) != null) {
+ *     ids.add(row[id]);
+ * }
+ * </pre>
+ * The rows are those that CDL.toJSONArray reads: the table ends at the end
+ * of the text or at an empty line, and {@link #toJSONObject(String[])} makes
+ * the JSONObject that CDL.toJSONArray would make for a row.
+ *
+ * @version 2026-10-18
+ */
+public class CDLReader {
+    private final JSONTokener x;
+    private final String[] names;
+    private final List<String> values = new ArrayList<String>();
+    private Map<String, Integer> indexes;
+    private boolean ended;
+
+    /**
+     * Construct a CDLReader that takes the names of the columns from the
+     * first row.
+     *
+     * @param x
+     *            A JSONTokener of the comma delimited text.
+     * @throws JSONException
+     *             If the first row is not well formed.
+     */
+    public CDLReader(JSONTokener x) throws JSONException {
+        this.x = x;
+        if (CDL.readRow(x, this.values)) {
+            this.names = this.values.toArray(new String[this.values.size()]);
+        } else {
+            this.names = new String[0];
+        }
+        this.ended = this.names.length == 0;
+    }
+
+    /**
+     * Construct a CDLReader with the names of the columns. All of the text
+     * is read as rows.
+     *
+     * @param names
+     *            A JSONArray of strings.
+     * @param x
+     *            A JSONTokener of the comma delimited text.
+     * @throws JSONException
+     *             If a name is not a string.
+     */
+    public CDLReader(JSONArray names, JSONTokener x) throws JSONException {
+        this.x = x;
+        int length = names == null ? 0 : names.length();
+        this.names = new String[length];
+        for (int i = 0; i < length; i += 1) {
+            this.names[i] = names.getString(i);
+        }
+        this.ended = length == 0;
+    }
+
+    /**
+     * Get the names of the columns. The array is shared by all the rows and
+     * must not be changed.
+     *
+     * @return The names, or an empty array if there are none.
+     */
+    public String[] getNames() {
+        return this.names;
+    }
+
+    /**
+     * Get the index in a row of the value of a column. If two columns have
+     * the same name, this is the last of them, as in
+     * {@link #toJSONObject(String[])}.
+     *
+     * @param name
+     *            The name of the column.
+     * @return The index, or -1 if there is no such column.
+     */
+    public int indexOf(String name) {
+        if (this.indexes == null) {
+            this.indexes = new HashMap<String, Integer>();
+            for (int i = 0; i < this.names.length; i += 1) {
+                this.indexes.put(this.names[i], i);
+            }
+        }
+        Integer index = this.indexes.get(name);
+        return index == null ? -1 : index.intValue();
+    }
+
+    /**
+     * Read the next row.
+     *
+     * @return The values of the row, which may be more or fewer than the
+     *         names, or null at the end of the table.
+     * @throws JSONException
+     *             If the row is not well formed.
+     */
+    public String[] next() throws JSONException {
+        if (this.ended) {
+            return null;
+        }
+        if (!CDL.readRow(this.x, this.values)) {
+            this.ended = true;
+            return null;
+        }
+        return this.values.toArray(new String[this.values.size()]);
+    }
+
+    /**
+     * Produce the JSONObject of a row, with a value for each name. A name
+     * without a value is left out, and a value without a name is ignored.
+     *
+     * @param row
+     *            A row returned by {@link #next()}.
+     * @return A JSONObject.
+     * @throws JSONException
+     */
+    public JSONObject toJSONObject(String[] row) throws JSONException {
+        JSONObject jo = new JSONObject();
+        for (int i = 0; i < this.names.length; i += 1) {
+            jo.put(this.names[i], i < row.length ? row[i] : null);
+        }
+        return jo;
+    }
+}
@@ -0,0 +1,169 @@
+package org.json;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+/**
+ * CDLWriter writes comma delimited text one row at a time, the way
+ * {@link CDL#toString(JSONArray)} writes a whole table, so that a table of
+ * any size can be written with constant memory:
+ * <pre>
+ * CDLWriter writer = new CDLWriter(outputStream);
+ * for (JSONObject record : records) {
+ *     writer.writeObject(record);
+ * }
+ * writer.flush();
+ * </pre>
+ * The names of the columns are those given to the constructor, or else the
+ * names of the first JSONObject written, which are then written as the
+ * first row.
+ *
+ * @version 2026-10-18
+ */
+public class CDLWriter {
+    private final Writer writer;
+    private final StringBuilder sb = new StringBuilder();
+    private JSONArray names;
+
+    /**
+     * Construct a CDLWriter that takes the names of the columns from the
+     * first JSONObject written.
+     *
+     * @param writer
+     *            The destination of the text.
+     */
+    public CDLWriter(Writer writer) {
+        this(null, writer);
+    }
+
+    /**
+     * Construct a CDLWriter that writes UTF-8 text to an OutputStream in
+     * chunks, and takes the names of the columns from the first JSONObject
+     * written. Call {@link #flush()} when done.
+     *
+     * @param out
+     *            The destination of the bytes.
+     */
+    public CDLWriter(OutputStream out) {
+        this(new BufferedWriter(new OutputStreamWriter(out,
+                Charset.forName("UTF-8"))));
+    }
+
+    /**
+     * Construct a CDLWriter with the names of the columns. The names are not
+     * written, as in {@link CDL#toString(JSONArray, JSONArray)}.
+     *
+     * @param names
+     *            A JSONArray of strings.
+     * @param writer
+     *            The destination of the text.
+     */
+    public CDLWriter(JSONArray names, Writer writer) {
+        this.names = names;
+        this.writer = writer;
+    }
+
+    /**
+     * Get the names of the columns.
+     *
+     * @return The names, or null if no JSONObject has given them yet.
+     */
+    public JSONArray getNames() {
+        return this.names;
+    }
+
+    /**
+     * Write a row of values.
+     *
+     * @param ja
+     *            A JSONArray of values.
+     * @return this.
+     * @throws JSONException
+     *             If the writer fails.
+     */
+    public CDLWriter writeRow(JSONArray ja) throws JSONException {
+        StringBuilder sb = this.sb;
+        sb.setLength(0);
+        for (int i = 0; i < ja.length(); i += 1) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            CDL.appendValue(sb, ja.opt(i));
+        }
+        return this.write(sb);
+    }
+
+    /**
+     * Write a row of values, such as one read by {@link CDLReader#next()}.
+     *
+     * @param values
+     *            The values. A null value is written as empty.
+     * @return this.
+     * @throws JSONException
+     *             If the writer fails.
+     */
+    public CDLWriter writeRow(String[] values) throws JSONException {
+        StringBuilder sb = this.sb;
+        sb.setLength(0);
+        for (int i = 0; i < values.length; i += 1) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            CDL.appendValue(sb, values[i]);
+        }
+        return this.write(sb);
+    }
+
+    /**
+     * Write the values of a JSONObject as a row, in the order of the names.
+     * If there are no names yet, the names of this JSONObject become the
+     * names of the columns and are written first; an empty JSONObject is
+     * then skipped.
+     *
+     * @param jo
+     *            A JSONObject.
+     * @return this.
+     * @throws JSONException
+     *             If the writer fails.
+     */
+    public CDLWriter writeObject(JSONObject jo) throws JSONException {
+        if (this.names == null) {
+            JSONArray names = jo.names();
+            if (names == null) {
+                return this;
+            }
+            this.names = names;
+            this.writeRow(names);
+        }
+        JSONArray ja = jo.toJSONArray(this.names);
+        return ja == null ? this : this.writeRow(ja);
+    }
+
+    /**
+     * Flush the text written so far to the destination.
+     *
+     * @throws JSONException
+     *             If the writer fails.
+     */
+    public void flush() throws JSONException {
+        try {
+            this.writer.flush();
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+    }
+
+    private CDLWriter write(StringBuilder sb) throws JSONException {
+        sb.append('\n');
+        try {
+            this.writer.append(sb);
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+        return this;
+    }
+}
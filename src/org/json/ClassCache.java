@@ -0,0 +1,109 @@
+package org.json;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * ClassCache keeps a value made from each class, such as the getters of a
+ * bean class, in a ConcurrentHashMap, so that looking a value up takes no
+ * lock and threads converting beans do not wait on each other.
+ * <p>
+ * The classes are weak keys and the values are soft references. A value
+ * usually refers to its class (a getter's Method does), so a class and its
+ * class loader stay reachable until the garbage collector clears the soft
+ * reference, which it does before running out of memory rather than at the
+ * first collection.
+ *
+ * @param <V> The type of the values.
+ * @version 2026-10-18
+ */
+final class ClassCache<V> {
+    private final ConcurrentMap<Object, SoftReference<V>> map =
+            new ConcurrentHashMap<Object, SoftReference<V>>();
+    private final ReferenceQueue<Class<?>> queue = new ReferenceQueue<Class<?>>();
+
+    /**
+     * Get the value of a class.
+     *
+     * @param klass
+     *            A class.
+     * @return The value, or null if there is none or it has been cleared.
+     */
+    V get(Class<?> klass) {
+        SoftReference<V> reference = this.map.get(new Lookup(klass));
+        return reference == null ? null : reference.get();
+    }
+
+    /**
+     * Put the value of a class, replacing any value it had.
+     *
+     * @param klass
+     *            A class.
+     * @param value
+     *            The value.
+     */
+    void put(Class<?> klass, V value) {
+        for (Reference<? extends Class<?>> stale = this.queue.poll(); stale != null;
+                stale = this.queue.poll()) {
+            this.map.remove(stale);
+        }
+        this.map.put(new Key(klass, this.queue), new SoftReference<V>(value));
+    }
+
+    /**
+     * A key of the map, which lets its class be collected.
+     */
+    private static final class Key extends WeakReference<Class<?>> {
+        private final int hash;
+
+        Key(Class<?> klass, ReferenceQueue<Class<?>> queue) {
+            super(klass, queue);
+            this.hash = System.identityHashCode(klass);
+        }
+
+        public int hashCode() {
+            return this.hash;
+        }
+
+        public boolean equals(Object other) {
+            if (other == this) {
+                return true;
+            }
+            Class<?> klass = this.get();
+            if (klass == null) {
+                return false;
+            }
+            if (other instanceof Lookup) {
+                return ((Lookup) other).klass == klass;
+            }
+            return other instanceof Key && ((Key) other).get() == klass;
+        }
+    }
+
+    /**
+     * A key to look a class up with, which is not a Reference so that making
+     * one costs no more than any small object.
+     */
+    private static final class Lookup {
+        final Class<?> klass;
+
+        Lookup(Class<?> klass) {
+            this.klass = klass;
+        }
+
+        public int hashCode() {
+            return System.identityHashCode(this.klass);
+        }
+
+        public boolean equals(Object other) {
+            if (other instanceof Key) {
+                return ((Key) other).get() == this.klass;
+            }
+            return other instanceof Lookup && ((Lookup) other).klass == this.klass;
+        }
+    }
+}
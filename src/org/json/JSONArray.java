@@ -25,10 +25,12 @@ package org.json;
  */
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Map;
@@ -73,6 +75,15 @@ import java.util.Map;
  * if they are not the reserved words <code>true</code>, <code>false</code>, or
  * <code>null</code>.</li>
  * </ul>
+ * <p>
+ * An array that holds only numbers (Integer, Long and finite Double values, as
+ * produced by the parser) is stored densely in a <code>long[]</code> or
+ * <code>double[]</code> rather than as boxed objects, and switches back to a
+ * list of objects as soon as anything else is put into it. This is not
+ * visible through <code>get</code>/<code>opt</code>, which return the same
+ * types as before, but {@link #getDouble(int)}, {@link #getLong(int)},
+ * {@link #toDoubleArray()} and {@link #toLongArray()} read such an array
+ * without boxing.
  *
  * @author JSON.org
  * @version 2014-05-03
@@ -80,15 +91,40 @@ import java.util.Map;
 public class JSONArray {
 
     /**
-     * The arrayList where the JSONArray's properties are kept.
+     * The largest magnitude of a long that a double holds exactly.
+     */
+    private static final long MAX_EXACT_LONG = 1L << 53;
+
+    /**
+     * The arrayList where the JSONArray's properties are kept. It is null
+     * while the array holds only numbers, which are then kept in
+     * <code>longs</code> or <code>doubles</code>.
+     */
+    private ArrayList<Object> myArrayList;
+
+    /**
+     * The values of an array of Integers and Longs. Longs are only stored
+     * here if they do not fit in an int, so a value that fits in an int is
+     * an Integer.
+     */
+    private long[] longs;
+
+    /**
+     * The values of an array of Doubles, possibly mixed with Integers and
+     * Longs. The set bits of <code>integers</code> mark the latter.
      */
-    private final ArrayList<Object> myArrayList;
+    private double[] doubles;
+    private BitSet integers;
+
+    /**
+     * The number of values in <code>longs</code> or <code>doubles</code>.
+     */
+    private int count;
 
     /**
      * Construct an empty JSONArray.
      */
     public JSONArray() {
-        this.myArrayList = new ArrayList<Object>();
     }
 
     /**
@@ -97,37 +133,15 @@ public class JSONArray {
      * @param x
      *            A JSONTokener
      * @throws JSONException
-     *             If there is a syntax error.
+     *             If there is a syntax error, or nesting deeper than the
+     *             tokener's maximum depth.
      */
     public JSONArray(JSONTokener x) throws JSONException {
         this();
         if (x.nextClean() != '[') {
             throw x.syntaxError("A JSONArray text must start with '['");
         }
-        if (x.nextClean() != ']') {
-            x.back();
-            for (;;) {
-                if (x.nextClean() == ',') {
-                    x.back();
-                    this.myArrayList.add(JSONObject.NULL);
-                } else {
-                    x.back();
-                    this.myArrayList.add(x.nextValue());
-                }
-                switch (x.nextClean()) {
-                case ',':
-                    if (x.nextClean() == ']') {
-                        return;
-                    }
-                    x.back();
-                    break;
-                case ']':
-                    return;
-                default:
-                    throw x.syntaxError("Expected a ',' or ']'");
-                }
-            }
-        }
+        x.parse(this);
     }
 
     /**
@@ -151,11 +165,10 @@ public class JSONArray {
      *            A Collection.
      */
     public JSONArray(Collection<Object> collection) {
-        this.myArrayList = new ArrayList<Object>();
         if (collection != null) {
             Iterator<Object> iter = collection.iterator();
             while (iter.hasNext()) {
-                this.myArrayList.add(JSONObject.wrap(iter.next()));
+                this.add(JSONObject.wrap(iter.next()));
             }
         }
     }
@@ -232,6 +245,9 @@ public class JSONArray {
      *             to a number.
      */
     public double getDouble(int index) throws JSONException {
+        if (this.myArrayList == null && index >= 0 && index < this.count) {
+            return this.longs != null ? this.longs[index] : this.doubles[index];
+        }
         Object object = this.get(index);
         try {
             return object instanceof Number ? ((Number) object).doubleValue()
@@ -251,6 +267,13 @@ public class JSONArray {
      *             If the key is not found or if the value is not a number.
      */
     public int getInt(int index) throws JSONException {
+        if (this.myArrayList == null && index >= 0 && index < this.count) {
+            if (this.longs != null) {
+                return (int) this.longs[index];
+            }
+            return this.integers.get(index) ? (int) (long) this.doubles[index]
+                    : (int) this.doubles[index];
+        }
         Object object = this.get(index);
         try {
             return object instanceof Number ? ((Number) object).intValue()
@@ -307,6 +330,10 @@ public class JSONArray {
      *             to a number.
      */
     public long getLong(int index) throws JSONException {
+        if (this.myArrayList == null && index >= 0 && index < this.count) {
+            return this.longs != null ? this.longs[index]
+                    : (long) this.doubles[index];
+        }
         Object object = this.get(index);
         try {
             return object instanceof Number ? ((Number) object).longValue()
@@ -363,7 +390,7 @@ public class JSONArray {
             if (i > 0) {
                 sb.append(separator);
             }
-            sb.append(JSONObject.valueToString(this.myArrayList.get(i)));
+            sb.append(JSONObject.valueToString(this.opt(i)));
         }
         return sb.toString();
     }
@@ -374,7 +401,7 @@ public class JSONArray {
      * @return The length (or size).
      */
     public int length() {
-        return this.myArrayList.size();
+        return this.myArrayList != null ? this.myArrayList.size() : this.count;
     }
 
     /**
@@ -385,8 +412,11 @@ public class JSONArray {
      * @return An object value, or null if there is no object at that index.
      */
     public Object opt(int index) {
-        return (index < 0 || index >= this.length()) ? null : this.myArrayList
-                .get(index);
+        if (index < 0 || index >= this.length()) {
+            return null;
+        }
+        return this.myArrayList != null ? this.myArrayList.get(index)
+                : this.denseValue(index);
     }
 
     /**
@@ -661,7 +691,7 @@ public class JSONArray {
      * @return this.
      */
     public JSONArray put(Object value) {
-        this.myArrayList.add(value);
+        this.add(value);
         return this;
     }
 
@@ -794,7 +824,10 @@ public class JSONArray {
             throw new JSONException("JSONArray[" + index + "] not found.");
         }
         if (index < this.length()) {
-            this.myArrayList.set(index, value);
+            if (this.myArrayList != null || !this.setDense(index, value)) {
+                this.inflate();
+                this.myArrayList.set(index, value);
+            }
         } else {
             while (index != this.length()) {
                 this.put(JSONObject.NULL);
@@ -813,9 +846,25 @@ public class JSONArray {
      *         was no value.
      */
     public Object remove(int index) {
-        return index >= 0 && index < this.length()
-            ? this.myArrayList.remove(index)
-            : null;
+        if (index < 0 || index >= this.length()) {
+            return null;
+        }
+        if (this.myArrayList != null) {
+            return this.myArrayList.remove(index);
+        }
+        Object value = this.denseValue(index);
+        int moved = this.count - index - 1;
+        if (this.longs != null) {
+            System.arraycopy(this.longs, index + 1, this.longs, index, moved);
+        } else {
+            System.arraycopy(this.doubles, index + 1, this.doubles, index, moved);
+            for (int i = index; i < this.count - 1; i += 1) {
+                this.integers.set(i, this.integers.get(i + 1));
+            }
+            this.integers.clear(this.count - 1);
+        }
+        this.count -= 1;
+        return value;
     }
 
     /**
@@ -874,6 +923,48 @@ public class JSONArray {
         return jo;
     }
 
+    /**
+     * Get the values of this JSONArray as doubles. An array that holds only
+     * numbers is copied without boxing.
+     *
+     * @return An array of the values.
+     * @throws JSONException
+     *             If a value is not a number and cannot be converted to one.
+     */
+    public double[] toDoubleArray() throws JSONException {
+        int length = this.length();
+        double[] values = new double[length];
+        if (this.doubles != null) {
+            System.arraycopy(this.doubles, 0, values, 0, length);
+        } else {
+            for (int i = 0; i < length; i += 1) {
+                values[i] = this.getDouble(i);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Get the values of this JSONArray as longs. An array that holds only
+     * numbers is copied without boxing.
+     *
+     * @return An array of the values.
+     * @throws JSONException
+     *             If a value is not a number and cannot be converted to one.
+     */
+    public long[] toLongArray() throws JSONException {
+        int length = this.length();
+        long[] values = new long[length];
+        if (this.longs != null) {
+            System.arraycopy(this.longs, 0, values, 0, length);
+        } else {
+            for (int i = 0; i < length; i += 1) {
+                values[i] = this.getLong(i);
+            }
+        }
+        return values;
+    }
+
     /**
      * Make a JSON text of this JSONArray. For compactness, no unnecessary
      * whitespace is added. If it is not possible to produce a syntactically
@@ -925,6 +1016,26 @@ public class JSONArray {
         return this.write(writer, 0, 0);
     }
 
+    /**
+     * Write the contents of the JSONArray as compact UTF-8 JSON text to an
+     * OutputStream, without building an intermediate String.
+     * <p>
+     * Warning: This method assumes that the data structure is acyclical.
+     *
+     * @return The OutputStream.
+     * @throws JSONException
+     */
+    public OutputStream write(OutputStream out) throws JSONException {
+        JSONByteWriter writer = new JSONByteWriter(out);
+        writer.value(this);
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+        return out;
+    }
+
     /**
      * Write the contents of the JSONArray as JSON text to a writer. For
      * compactness, no whitespace is added.
@@ -946,8 +1057,7 @@ public class JSONArray {
             writer.write('[');
 
             if (length == 1) {
-                JSONObject.writeValue(writer, this.myArrayList.get(0),
-                        indentFactor, indent);
+                this.writeValue(writer, 0, indentFactor, indent);
             } else if (length != 0) {
                 final int newindent = indent + indentFactor;
 
@@ -959,8 +1069,7 @@ public class JSONArray {
                         writer.write('\n');
                     }
                     JSONObject.indent(writer, newindent);
-                    JSONObject.writeValue(writer, this.myArrayList.get(i),
-                            indentFactor, newindent);
+                    this.writeValue(writer, i, indentFactor, newindent);
                     commanate = true;
                 }
                 if (indentFactor > 0) {
@@ -974,4 +1083,198 @@ public class JSONArray {
             throw new JSONException(e);
         }
     }
+
+    private void writeValue(Writer writer, int index, int indentFactor,
+            int indent) throws JSONException, IOException {
+        if (this.myArrayList != null) {
+            JSONObject.writeValue(writer, this.myArrayList.get(index),
+                    indentFactor, indent);
+        } else if (this.longs != null) {
+            writer.write(Long.toString(this.longs[index]));
+        } else if (this.integers.get(index)) {
+            writer.write(Long.toString((long) this.doubles[index]));
+        } else {
+            writer.write(JSONObject.doubleToString(this.doubles[index]));
+        }
+    }
+
+    /**
+     * The values of an array of Integers and Longs, or null if the array is
+     * not stored that way. Only the first length() values are used.
+     */
+    long[] denseLongs() {
+        return this.longs;
+    }
+
+    /**
+     * The values of an array of Doubles, Integers and Longs, or null if the
+     * array is not stored that way. Only the first length() values are used.
+     */
+    double[] denseDoubles() {
+        return this.doubles;
+    }
+
+    /**
+     * Whether a value of denseDoubles() is an Integer or a Long.
+     */
+    boolean isDenseInteger(int index) {
+        return this.integers.get(index);
+    }
+
+    void add(Object value) {
+        if (this.myArrayList == null) {
+            if (this.addDense(value)) {
+                return;
+            }
+            this.inflate();
+        }
+        this.myArrayList.add(value);
+    }
+
+    /**
+     * Append a value to the dense storage.
+     *
+     * @return false if the value cannot be stored densely.
+     */
+    private boolean addDense(Object value) {
+        boolean isLong = isDenseLong(value);
+        if (this.doubles == null && isLong) {
+            if (this.longs == null) {
+                this.longs = new long[10];
+            } else if (this.count == this.longs.length) {
+                long[] grown = new long[this.count + (this.count >> 1)];
+                System.arraycopy(this.longs, 0, grown, 0, this.count);
+                this.longs = grown;
+            }
+            this.longs[this.count] = ((Number) value).longValue();
+            this.count += 1;
+            return true;
+        }
+        if (!isLong && !isDenseDouble(value)) {
+            return false;
+        }
+        if (this.doubles == null && !this.toDoubles()) {
+            return false;
+        }
+        if (this.count == this.doubles.length) {
+            double[] grown = new double[this.count + (this.count >> 1)];
+            System.arraycopy(this.doubles, 0, grown, 0, this.count);
+            this.doubles = grown;
+        }
+        if (!this.setDense(this.count, value)) {
+            return false;
+        }
+        this.count += 1;
+        return true;
+    }
+
+    /**
+     * Replace a value in the dense storage.
+     *
+     * @return false if the value cannot be stored densely.
+     */
+    private boolean setDense(int index, Object value) {
+        if (this.longs != null) {
+            if (isDenseLong(value)) {
+                this.longs[index] = ((Number) value).longValue();
+                return true;
+            }
+            if (!isDenseDouble(value) || !this.toDoubles()) {
+                return false;
+            }
+        }
+        if (isDenseDouble(value)) {
+            this.doubles[index] = ((Double) value).doubleValue();
+            this.integers.clear(index);
+            return true;
+        }
+        if (isDenseLong(value)) {
+            long v = ((Number) value).longValue();
+            if (v <= MAX_EXACT_LONG && v >= -MAX_EXACT_LONG) {
+                this.doubles[index] = v;
+                this.integers.set(index);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Move the values from <code>longs</code> to <code>doubles</code>.
+     *
+     * @return false if a long cannot be held exactly by a double.
+     */
+    private boolean toDoubles() {
+        double[] values = new double[this.longs != null ? this.longs.length : 10];
+        for (int i = 0; i < this.count; i += 1) {
+            long v = this.longs[i];
+            if (v > MAX_EXACT_LONG || v < -MAX_EXACT_LONG) {
+                return false;
+            }
+            values[i] = v;
+        }
+        this.integers = new BitSet();
+        this.integers.set(0, this.count);
+        this.doubles = values;
+        this.longs = null;
+        return true;
+    }
+
+    /**
+     * Move the values from the dense storage to <code>myArrayList</code>.
+     */
+    private void inflate() {
+        if (this.myArrayList != null) {
+            return;
+        }
+        ArrayList<Object> list = new ArrayList<Object>(Math.max(10, this.count));
+        for (int i = 0; i < this.count; i += 1) {
+            list.add(this.denseValue(i));
+        }
+        this.myArrayList = list;
+        this.longs = null;
+        this.doubles = null;
+        this.integers = null;
+        this.count = 0;
+    }
+
+    private Object denseValue(int index) {
+        if (this.longs != null) {
+            return box(this.longs[index]);
+        }
+        if (this.integers.get(index)) {
+            return box((long) this.doubles[index]);
+        }
+        return Double.valueOf(this.doubles[index]);
+    }
+
+    private static Object box(long value) {
+        if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+            return Integer.valueOf((int) value);
+        }
+        return Long.valueOf(value);
+    }
+
+    /**
+     * Whether a value is an Integer, or a Long that does not fit in an int,
+     * so that its type can be told from its value.
+     */
+    private static boolean isDenseLong(Object value) {
+        if (value instanceof Integer) {
+            return true;
+        }
+        if (value instanceof Long) {
+            long v = ((Long) value).longValue();
+            return v < Integer.MIN_VALUE || v > Integer.MAX_VALUE;
+        }
+        return false;
+    }
+
+    private static boolean isDenseDouble(Object value) {
+        if (value instanceof Double) {
+            double d = ((Double) value).doubleValue();
+            return !Double.isInfinite(d) && !Double.isNaN(d);
+        }
+        return false;
+    }
 }
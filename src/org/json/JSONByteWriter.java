@@ -0,0 +1,414 @@
+package org.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * JSONByteWriter serializes JSON values straight into UTF-8 bytes. Keys and
+ * strings are escaped in place, so no intermediate <code>String</code> or
+ * <code>StringWriter</code> is created per key or value. The escaping rules
+ * are the same as {@link JSONObject#quote(String)}, so the output is byte for
+ * byte the UTF-8 encoding of <code>toString()</code>.
+ * <p>
+ * Without an OutputStream the bytes are kept in a growable buffer which can be
+ * handed to an HTTP entity with {@link #buffer()} and {@link #size()}. With an
+ * OutputStream the buffer is flushed whenever it fills up.
+ * <pre>
+ * JSONByteWriter writer = new JSONByteWriter();
+ * writer.value(jsonObject);
+ * Request.Post(url).bodyByteArray(writer.buffer(), 0, writer.size());
+ * </pre>
+ * Warning: This class assumes that the data structure is acyclical.
+ *
+ * @version 2026-10-18
+ */
+public class JSONByteWriter {
+    private static final int DEFAULT_CAPACITY = 8192;
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+    private static final byte[] NULL = "null".getBytes();
+    private static final byte[] TRUE = "true".getBytes();
+    private static final byte[] FALSE = "false".getBytes();
+
+    private final OutputStream out;
+    private byte[] buf;
+    private int count;
+
+    /**
+     * Construct a JSONByteWriter that collects the bytes in a growable buffer.
+     */
+    public JSONByteWriter() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Construct a JSONByteWriter that collects the bytes in a growable buffer.
+     *
+     * @param capacity The initial capacity of the buffer.
+     */
+    public JSONByteWriter(int capacity) {
+        this.out = null;
+        this.buf = new byte[Math.max(capacity, 16)];
+    }
+
+    /**
+     * Construct a JSONByteWriter that writes to an OutputStream in chunks.
+     * Call {@link #flush()} when done.
+     *
+     * @param out The destination of the bytes.
+     */
+    public JSONByteWriter(OutputStream out) {
+        this.out = out;
+        this.buf = new byte[DEFAULT_CAPACITY];
+    }
+
+    /**
+     * Serialize a value as compact JSON text. The value can be anything
+     * {@link JSONObject#valueToString(Object)} accepts.
+     *
+     * @param value The value to serialize.
+     * @return this.
+     * @throws JSONException If the value is or contains an invalid number,
+     *  or if the OutputStream fails.
+     */
+    public JSONByteWriter value(Object value) throws JSONException {
+        try {
+            this.writeValue(value);
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+        return this;
+    }
+
+    /**
+     * Write a string in double quotes with backslash sequences in all the
+     * right places.
+     *
+     * @param string A String, null is written as <code>""</code>.
+     * @return this.
+     * @throws JSONException If the OutputStream fails.
+     */
+    public JSONByteWriter quote(String string) throws JSONException {
+        try {
+            this.writeString(string);
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+        return this;
+    }
+
+    /**
+     * Write the buffered bytes to the OutputStream, if there is one.
+     */
+    public void flush() throws IOException {
+        if (this.out != null) {
+            if (this.count > 0) {
+                this.out.write(this.buf, 0, this.count);
+                this.count = 0;
+            }
+            this.out.flush();
+        }
+    }
+
+    /**
+     * The internal buffer. Only the first {@link #size()} bytes are valid.
+     *
+     * @return The buffer, not a copy.
+     */
+    public byte[] buffer() {
+        return this.buf;
+    }
+
+    /**
+     * @return The number of bytes in the buffer.
+     */
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * @return A copy of the bytes in the buffer.
+     */
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[this.count];
+        System.arraycopy(this.buf, 0, bytes, 0, this.count);
+        return bytes;
+    }
+
+    /**
+     * Discard the buffered bytes, keeping the buffer for reuse.
+     */
+    public void reset() {
+        this.count = 0;
+    }
+
+    /**
+     * Serialize a value as compact UTF-8 JSON text.
+     *
+     * @param value The value to serialize.
+     * @return The UTF-8 bytes.
+     * @throws JSONException If the value is or contains an invalid number.
+     */
+    public static byte[] toBytes(Object value) throws JSONException {
+        return new JSONByteWriter().value(value).toByteArray();
+    }
+
+    void writeValue(Object value) throws IOException {
+        if (value == null || value.equals(null)) {
+            this.writeBytes(NULL);
+        } else if (value instanceof JSONObject) {
+            this.writeObject((JSONObject) value);
+        } else if (value instanceof JSONArray) {
+            this.writeArray((JSONArray) value);
+        } else if (value instanceof String) {
+            this.writeString((String) value);
+        } else if (value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte) {
+            this.writeLong(((Number) value).longValue());
+        } else if (value instanceof Number) {
+            this.writeAscii(JSONObject.numberToString((Number) value));
+        } else if (value instanceof Boolean) {
+            this.writeBytes(((Boolean) value).booleanValue() ? TRUE : FALSE);
+        } else if (value instanceof Map) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> map = (Map<String, Object>) value;
+            this.writeObject(new JSONObject(map));
+        } else if (value instanceof Collection) {
+            @SuppressWarnings("unchecked")
+            Collection<Object> collection = (Collection<Object>) value;
+            this.writeArray(new JSONArray(collection));
+        } else if (value.getClass().isArray()) {
+            this.writeArray(new JSONArray(value));
+        } else if (value instanceof JSONString) {
+            Object o;
+            try {
+                o = ((JSONString) value).toJSONString();
+            } catch (Exception e) {
+                throw new JSONException(e);
+            }
+            if (o != null) {
+                this.writeChars(o.toString());
+            } else {
+                this.writeString(value.toString());
+            }
+        } else {
+            this.writeString(value.toString());
+        }
+    }
+
+    private void writeObject(JSONObject jo) throws IOException {
+        this.writeByte('{');
+        boolean commanate = false;
+        Iterator<Entry<String, Object>> entries = jo.entrySet().iterator();
+        while (entries.hasNext()) {
+            Entry<String, Object> entry = entries.next();
+            if (commanate) {
+                this.writeByte(',');
+            }
+            this.writeString(entry.getKey());
+            this.writeByte(':');
+            this.writeValue(entry.getValue());
+            commanate = true;
+        }
+        this.writeByte('}');
+    }
+
+    private void writeArray(JSONArray ja) throws IOException {
+        this.writeByte('[');
+        int length = ja.length();
+        long[] longs = ja.denseLongs();
+        double[] doubles = ja.denseDoubles();
+        for (int i = 0; i < length; i += 1) {
+            if (i > 0) {
+                this.writeByte(',');
+            }
+            if (longs != null) {
+                this.writeLong(longs[i]);
+            } else if (doubles == null) {
+                this.writeValue(ja.opt(i));
+            } else if (ja.isDenseInteger(i)) {
+                this.writeLong((long) doubles[i]);
+            } else {
+                this.writeAscii(JSONObject.doubleToString(doubles[i]));
+            }
+        }
+        this.writeByte(']');
+    }
+
+    void writeString(String string) throws IOException {
+        if (string == null || string.length() == 0) {
+            this.ensure(2);
+            this.buf[this.count++] = '"';
+            this.buf[this.count++] = '"';
+            return;
+        }
+
+        char b;
+        char c = 0;
+        int len = string.length();
+        this.writeByte('"');
+        for (int i = 0; i < len; i += 1) {
+            b = c;
+            c = string.charAt(i);
+            this.ensure(6);
+            byte[] buf = this.buf;
+            switch (c) {
+            case '\\':
+            case '"':
+                buf[this.count++] = '\\';
+                buf[this.count++] = (byte) c;
+                break;
+            case '/':
+                if (b == '<') {
+                    buf[this.count++] = '\\';
+                }
+                buf[this.count++] = '/';
+                break;
+            case '\b':
+                buf[this.count++] = '\\';
+                buf[this.count++] = 'b';
+                break;
+            case '\t':
+                buf[this.count++] = '\\';
+                buf[this.count++] = 't';
+                break;
+            case '\n':
+                buf[this.count++] = '\\';
+                buf[this.count++] = 'n';
+                break;
+            case '\f':
+                buf[this.count++] = '\\';
+                buf[this.count++] = 'f';
+                break;
+            case '\r':
+                buf[this.count++] = '\\';
+                buf[this.count++] = 'r';
+                break;
+            default:
+                if (c < ' ' || (c >= '\u0080' && c < '\u00a0')
+                        || (c >= '\u2000' && c < '\u2100')) {
+                    buf[this.count++] = '\\';
+                    buf[this.count++] = 'u';
+                    buf[this.count++] = HEX[(c >> 12) & 0xf];
+                    buf[this.count++] = HEX[(c >> 8) & 0xf];
+                    buf[this.count++] = HEX[(c >> 4) & 0xf];
+                    buf[this.count++] = HEX[c & 0xf];
+                } else if (c < 0x80) {
+                    buf[this.count++] = (byte) c;
+                } else {
+                    i = this.encodeChar(string, i, c);
+                }
+            }
+        }
+        this.writeByte('"');
+    }
+
+    /**
+     * Write a string that is already JSON text, encoding it as UTF-8.
+     */
+    private void writeChars(String string) throws IOException {
+        int len = string.length();
+        for (int i = 0; i < len; i += 1) {
+            char c = string.charAt(i);
+            this.ensure(4);
+            if (c < 0x80) {
+                this.buf[this.count++] = (byte) c;
+            } else {
+                i = this.encodeChar(string, i, c);
+            }
+        }
+    }
+
+    /**
+     * Encode a non-ASCII char as UTF-8. There must be room for 4 bytes.
+     *
+     * @return The index of the last char consumed.
+     */
+    private int encodeChar(String string, int i, char c) {
+        byte[] buf = this.buf;
+        if (c < 0x800) {
+            buf[this.count++] = (byte) (0xc0 | (c >> 6));
+            buf[this.count++] = (byte) (0x80 | (c & 0x3f));
+        } else if (Character.isHighSurrogate(c) && i + 1 < string.length()
+                && Character.isLowSurrogate(string.charAt(i + 1))) {
+            int cp = Character.toCodePoint(c, string.charAt(i + 1));
+            buf[this.count++] = (byte) (0xf0 | (cp >> 18));
+            buf[this.count++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+            buf[this.count++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+            buf[this.count++] = (byte) (0x80 | (cp & 0x3f));
+            return i + 1;
+        } else if (c >= '\uD800' && c <= '\uDFFF') {
+            // Unpaired surrogate, replaced the same way String.getBytes does.
+            buf[this.count++] = '?';
+        } else {
+            buf[this.count++] = (byte) (0xe0 | (c >> 12));
+            buf[this.count++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+            buf[this.count++] = (byte) (0x80 | (c & 0x3f));
+        }
+        return i;
+    }
+
+    private void writeLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            this.writeAscii(Long.toString(value));
+            return;
+        }
+        this.ensure(20);
+        if (value < 0) {
+            this.buf[this.count++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits += 1;
+        }
+        int pos = this.count + digits;
+        this.count = pos;
+        do {
+            this.buf[--pos] = (byte) ('0' + (int) (value % 10));
+            value /= 10;
+        } while (value != 0);
+    }
+
+    private void writeAscii(String string) throws IOException {
+        int len = string.length();
+        this.ensure(len);
+        for (int i = 0; i < len; i += 1) {
+            this.buf[this.count++] = (byte) string.charAt(i);
+        }
+    }
+
+    void writeBytes(byte[] bytes) throws IOException {
+        this.ensure(bytes.length);
+        System.arraycopy(bytes, 0, this.buf, this.count, bytes.length);
+        this.count += bytes.length;
+    }
+
+    void writeByte(char c) throws IOException {
+        this.ensure(1);
+        this.buf[this.count++] = (byte) c;
+    }
+
+    /**
+     * Make room for n more bytes, flushing to the OutputStream or growing
+     * the buffer.
+     */
+    private void ensure(int n) throws IOException {
+        if (this.count + n <= this.buf.length) {
+            return;
+        }
+        if (this.out != null) {
+            this.out.write(this.buf, 0, this.count);
+            this.count = 0;
+            if (n <= this.buf.length) {
+                return;
+            }
+        }
+        byte[] bigger = new byte[Math.max(this.buf.length << 1, this.count + n)];
+        System.arraycopy(this.buf, 0, bigger, 0, this.count);
+        this.buf = bigger;
+    }
+}
@@ -0,0 +1,49 @@
+package org.json;
+
+/**
+ * A <code>JSONContentHandler</code> receives the events of a JSON text from
+ * {@link JSONPullParser#parse(JSONContentHandler)} in document order, like a
+ * SAX ContentHandler. Nothing is kept between events, so a handler can
+ * process a document of any size in the memory it chooses to keep itself.
+ * A handler stops the parse early by throwing an exception.
+ *
+ * @version 2026-10-18
+ */
+public interface JSONContentHandler {
+
+    /**
+     * The <code>{</code> of an object was read.
+     */
+    public void startObject() throws JSONException;
+
+    /**
+     * The <code>}</code> of an object was read.
+     */
+    public void endObject() throws JSONException;
+
+    /**
+     * The <code>[</code> of an array was read.
+     */
+    public void startArray() throws JSONException;
+
+    /**
+     * The <code>]</code> of an array was read.
+     */
+    public void endArray() throws JSONException;
+
+    /**
+     * The key of an object member was read. The next event is its value.
+     *
+     * @param key
+     *            The key.
+     */
+    public void key(String key) throws JSONException;
+
+    /**
+     * A value that is not an object or array was read.
+     *
+     * @param value
+     *            A Boolean, Number, String, or JSONObject.NULL.
+     */
+    public void value(Object value) throws JSONException;
+}
@@ -0,0 +1,122 @@
+package org.json;
+
+/**
+ * JSONKeyPool canonicalizes the keys of parsed JSONObjects. When many
+ * documents with the same schema are parsed, every occurrence of a field name
+ * resolves to one shared <code>String</code> instance whose hash code has
+ * already been computed, instead of a fresh copy per object. This reduces the
+ * heap retained by long-lived parsed documents and makes later
+ * <code>get</code>/<code>opt</code> lookups cheaper.
+ * <p>
+ * The pool is a fixed size, direct-mapped table: a key whose slot is taken by
+ * another key simply replaces it, so the pool never grows beyond its
+ * capacity and needs no eviction. Keys longer than {@link #MAX_KEY_LENGTH}
+ * are not pooled. A pool may be shared by any number of tokeners on any
+ * number of threads; a lost race only costs a duplicate String.
+ * <pre>
+ * JSONTokener x = new JSONTokener(reader);
+ * x.setKeyPool(JSONKeyPool.DEFAULT);
+ * JSONObject jo = new JSONObject(x);
+ * </pre>
+ *
+ * @version 2026-10-18
+ */
+public class JSONKeyPool {
+
+    /**
+     * Keys longer than this are returned as new Strings without pooling.
+     */
+    public static final int MAX_KEY_LENGTH = 64;
+
+    /**
+     * A pool shared by the whole JVM, with room for 4096 keys.
+     */
+    public static final JSONKeyPool DEFAULT = new JSONKeyPool(4096);
+
+    private final String[] keys;
+    private final int mask;
+
+    /**
+     * Construct a JSONKeyPool.
+     *
+     * @param capacity The number of slots, rounded up to a power of two.
+     */
+    public JSONKeyPool(int capacity) {
+        int size = 16;
+        while (size < capacity && size < (1 << 20)) {
+            size <<= 1;
+        }
+        this.keys = new String[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Get the canonical String for a run of characters, creating it if the
+     * pool does not hold it yet.
+     *
+     * @param chars  The characters of the key.
+     * @param offset The index of the first character.
+     * @param length The number of characters.
+     * @return A String equal to the characters.
+     */
+    public String intern(char[] chars, int offset, int length) {
+        if (length > MAX_KEY_LENGTH) {
+            return new String(chars, offset, length);
+        }
+        int hash = 0;
+        for (int i = 0; i < length; i += 1) {
+            hash = 31 * hash + chars[offset + i];
+        }
+        int slot = spread(hash) & this.mask;
+        String key = this.keys[slot];
+        if (key != null && key.length() == length && matches(key, chars, offset)) {
+            return key;
+        }
+        key = new String(chars, offset, length);
+        key.hashCode();
+        this.keys[slot] = key;
+        return key;
+    }
+
+    /**
+     * Get the canonical String equal to a key.
+     *
+     * @param string A key.
+     * @return The pooled String equal to the key, or the key itself.
+     */
+    public String intern(String string) {
+        int length = string.length();
+        if (length > MAX_KEY_LENGTH) {
+            return string;
+        }
+        int slot = spread(string.hashCode()) & this.mask;
+        String key = this.keys[slot];
+        if (string.equals(key)) {
+            return key;
+        }
+        this.keys[slot] = string;
+        return string;
+    }
+
+    /**
+     * Remove all keys from the pool.
+     */
+    public void clear() {
+        for (int i = 0; i < this.keys.length; i += 1) {
+            this.keys[i] = null;
+        }
+    }
+
+    private static boolean matches(String key, char[] chars, int offset) {
+        for (int i = key.length() - 1; i >= 0; i -= 1) {
+            if (key.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
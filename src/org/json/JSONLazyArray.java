@@ -0,0 +1,560 @@
+package org.json;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * A JSONLazyArray is a read-only view of the text of a JSON array. Building it
+ * takes one pass over the text that records where each element starts and
+ * ends; an element is only built when it is read, and then kept. Nested
+ * objects and arrays are returned as further lazy views. See
+ * {@link JSONLazyObject}.
+ *
+ * @version 2026-10-18
+ */
+public class JSONLazyArray {
+    private final char[] chars;
+    private final int start;
+    private int end;
+    private int length;
+
+    /**
+     * The start and end of each element. An elided element has an empty
+     * range and reads as JSONObject.NULL.
+     */
+    private int[] bounds;
+    private Object[] values;
+
+    /**
+     * Construct a JSONLazyArray from a source JSON text.
+     *
+     * @param source
+     *            A string that begins with <code>[</code>&nbsp;<small>(left
+     *            bracket)</small> and ends with <code>]</code>
+     *            &nbsp;<small>(right bracket)</small>.
+     * @throws JSONException
+     *             If the structure of the text is not valid.
+     */
+    public JSONLazyArray(String source) throws JSONException {
+        this(source.toCharArray(), 0, source.length());
+    }
+
+    /**
+     * Construct a JSONLazyArray over a range of a character array. The array
+     * is not copied and must not be changed afterwards.
+     *
+     * @param chars
+     *            The characters of the text.
+     * @param offset
+     *            The index of the first character.
+     * @param length
+     *            The number of characters.
+     * @throws JSONException
+     *             If the structure of the text is not valid.
+     */
+    public JSONLazyArray(char[] chars, int offset, int length)
+            throws JSONException {
+        this.chars = chars;
+        this.end = offset + length;
+        int p = JSONScanner.skipWhitespace(chars, offset, this.end);
+        if (p >= this.end || chars[p] != '[') {
+            throw JSONScanner.syntaxError(chars, Math.min(p + 1, this.end),
+                    this.end, "A JSONArray text must start with '['");
+        }
+        this.start = p;
+        this.bounds = new int[16];
+        this.scan(p + 1);
+    }
+
+    private void scan(int p) throws JSONException {
+        char[] chars = this.chars;
+        int end = this.end;
+        p = JSONScanner.skipWhitespace(chars, p, end);
+        if (p < end && chars[p] == ']') {
+            this.end = p + 1;
+            return;
+        }
+        for (;;) {
+            p = JSONScanner.skipWhitespace(chars, p, end);
+            int valueStart = p;
+            if (p < end && chars[p] != ',') {
+                p = JSONScanner.skipValue(chars, p, end);
+                if (p == valueStart) {
+                    throw JSONScanner.syntaxError(chars, Math.min(p + 1, end),
+                            end, "Missing value");
+                }
+            }
+            this.add(valueStart, p);
+            p = JSONScanner.skipWhitespace(chars, p, end);
+            char c = p < end ? chars[p] : 0;
+            if (c == ',') {
+                p = JSONScanner.skipWhitespace(chars, p + 1, end);
+                if (p < end && chars[p] == ']') {
+                    this.end = p + 1;
+                    return;
+                }
+            } else if (c == ']') {
+                this.end = p + 1;
+                return;
+            } else {
+                throw JSONScanner.syntaxError(chars, Math.min(p + 1, end), end,
+                        "Expected a ',' or ']'");
+            }
+        }
+    }
+
+    private void add(int valueStart, int valueEnd) {
+        if (2 * (this.length + 1) > this.bounds.length) {
+            int[] grown = new int[this.bounds.length * 2];
+            System.arraycopy(this.bounds, 0, grown, 0, this.bounds.length);
+            this.bounds = grown;
+        }
+        this.bounds[2 * this.length] = valueStart;
+        this.bounds[2 * this.length + 1] = valueEnd;
+        this.length += 1;
+    }
+
+    /**
+     * Get the object value associated with an index.
+     *
+     * @param index
+     *            The index must be between 0 and length() - 1.
+     * @return An object value: a JSONLazyObject, JSONLazyArray, String,
+     *         Number, Boolean or JSONObject.NULL.
+     * @throws JSONException
+     *             If there is no value for the index or the value is not
+     *             valid.
+     */
+    public Object get(int index) throws JSONException {
+        Object object = this.opt(index);
+        if (object == null) {
+            throw new JSONException("JSONArray[" + index + "] not found.");
+        }
+        return object;
+    }
+
+    /**
+     * Get the optional object value associated with an index.
+     *
+     * @param index
+     *            The index must be between 0 and length() - 1.
+     * @return An object value, or null if there is no object at that index.
+     * @throws JSONException
+     *             If the value is not valid.
+     */
+    public Object opt(int index) throws JSONException {
+        if (index < 0 || index >= this.length) {
+            return null;
+        }
+        if (this.values == null) {
+            this.values = new Object[this.length];
+        }
+        Object value = this.values[index];
+        if (value == null) {
+            value = JSONScanner.value(this.chars, this.bounds[2 * index],
+                    this.bounds[2 * index + 1]);
+            this.values[index] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Get the boolean value associated with an index. The string values "true"
+     * and "false" are converted to boolean.
+     *
+     * @param index
+     *            The index must be between 0 and length() - 1.
+     * @return The truth.
+     * @throws JSONException
+     *             If there is no value for the index or if the value is not
+     *             convertible to boolean.
+     */
+    public boolean getBoolean(int index) throws JSONException {
+        Object object = this.get(index);
+        if (object.equals(Boolean.FALSE)
+                || (object instanceof String && ((String) object)
+                        .equalsIgnoreCase("false"))) {
+            return false;
+        } else if (object.equals(Boolean.TRUE)
+                || (object instanceof String && ((String) object)
+                        .equalsIgnoreCase("true"))) {
+            return true;
+        }
+        throw new JSONException("JSONArray[" + index + "] is not a boolean.");
+    }
+
+    /**
+     * Get the double value associated with an index.
+     *
+     * @param index
+     *            The index must be between 0 and length() - 1.
+     * @return The value.
+     * @throws JSONException
+     *             If the key is not found or if the value cannot be converted
+     *             to a number.
+     */
+    public double getDouble(int index) throws JSONException {
+        Object object = this.get(index);
+        try {
+            return object instanceof Number ? ((Number) object).doubleValue()
+                    : Double.parseDouble((String) object);
+        } catch (Exception e) {
+            throw new JSONException("JSONArray[" + index + "] is not a number.");
+        }
+    }
+
+    /**
+     * Get the int value associated with an index.
+     *
+     * @param index
+     *            The index must be between 0 and length() - 1.
+     * @return The value.
+     * @throws JSONException
+     *             If the key is not found or if the value is not a number.
+     */
+    public int getInt(int index) throws JSONException {
+        Object object = this.get(index);
+        try {
+            return object instanceof Number ? ((Number) object).intValue()
+                    : Integer.parseInt((String) object);
+        } catch (Exception e) {
+            throw new JSONException("JSONArray[" + index + "] is not a number.");
+        }
+    }
+
+    /**
+     * Get the long value associated with an index.
+     *
+     * @param index
+     *            The index must be between 0 and length() - 1.
+     * @return The value.
+     * @throws JSONException
+     *             If the key is not found or if the value cannot be converted
+     *             to a number.
+     */
+    public long getLong(int index) throws JSONException {
+        Object object = this.get(index);
+        try {
+            return object instanceof Number ? ((Number) object).longValue()
+                    : Long.parseLong((String) object);
+        } catch (Exception e) {
+            throw new JSONException("JSONArray[" + index + "] is not a number.");
+        }
+    }
+
+    /**
+     * Get the string associated with an index.
+     *
+     * @param index
+     *            The index must be between 0 and length() - 1.
+     * @return A string value.
+     * @throws JSONException
+     *             If there is no string value for the index.
+     */
+    public String getString(int index) throws JSONException {
+        Object object = this.get(index);
+        if (object instanceof String) {
+            return (String) object;
+        }
+        throw new JSONException("JSONArray[" + index + "] not a string.");
+    }
+
+    /**
+     * Get the lazy view of the object associated with an index.
+     *
+     * @param index
+     *            subscript
+     * @return A JSONLazyObject value.
+     * @throws JSONException
+     *             If there is no value for the index or if the value is not
+     *             an object.
+     */
+    public JSONLazyObject getJSONObject(int index) throws JSONException {
+        Object object = this.get(index);
+        if (object instanceof JSONLazyObject) {
+            return (JSONLazyObject) object;
+        }
+        throw new JSONException("JSONArray[" + index + "] is not a JSONObject.");
+    }
+
+    /**
+     * Get the lazy view of the array associated with an index.
+     *
+     * @param index
+     *            The index must be between 0 and length() - 1.
+     * @return A JSONLazyArray value.
+     * @throws JSONException
+     *             If there is no value for the index or if the value is not
+     *             an array.
+     */
+    public JSONLazyArray getJSONArray(int index) throws JSONException {
+        Object object = this.get(index);
+        if (object instanceof JSONLazyArray) {
+            return (JSONLazyArray) object;
+        }
+        throw new JSONException("JSONArray[" + index + "] is not a JSONArray.");
+    }
+
+    /**
+     * Determine if the value is null.
+     *
+     * @param index
+     *            The index must be between 0 and length() - 1.
+     * @return true if the value at the index is null, or if there is no value.
+     */
+    public boolean isNull(int index) {
+        return JSONObject.NULL.equals(this.optValue(index));
+    }
+
+    /**
+     * Get the number of elements in the JSONLazyArray, included nulls.
+     *
+     * @return The length (or size).
+     */
+    public int length() {
+        return this.length;
+    }
+
+    /**
+     * Get the optional boolean value associated with an index. It returns the
+     * defaultValue if there is no value at that index or if it is not a Boolean
+     * or the String "true" or "false" (case insensitive).
+     *
+     * @param index
+     *            The index must be between 0 and length() - 1.
+     * @param defaultValue
+     *            A boolean default.
+     * @return The truth.
+     */
+    public boolean optBoolean(int index, boolean defaultValue) {
+        try {
+            return this.getBoolean(index);
+        } catch (Exception e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Get the optional double value associated with an index. The defaultValue
+     * is returned if there is no value for the index, or if the value is not a
+     * number and cannot be converted to a number.
+     *
+     * @param index
+     *            subscript
+     * @param defaultValue
+     *            The default value.
+     * @return The value.
+     */
+    public double optDouble(int index, double defaultValue) {
+        try {
+            return this.getDouble(index);
+        } catch (Exception e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Get the optional int value associated with an index. The defaultValue is
+     * returned if there is no value for the index, or if the value is not a
+     * number and cannot be converted to a number.
+     *
+     * @param index
+     *            The index must be between 0 and length() - 1.
+     * @param defaultValue
+     *            The default value.
+     * @return The value.
+     */
+    public int optInt(int index, int defaultValue) {
+        try {
+            return this.getInt(index);
+        } catch (Exception e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Get the optional long value associated with an index. The defaultValue
+     * is returned if there is no value for the index, or if the value is not a
+     * number and cannot be converted to a number.
+     *
+     * @param index
+     *            The index must be between 0 and length() - 1.
+     * @param defaultValue
+     *            The default value.
+     * @return The value.
+     */
+    public long optLong(int index, long defaultValue) {
+        try {
+            return this.getLong(index);
+        } catch (Exception e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Get the optional string associated with an index. The defaultValue is
+     * returned if the key is not found.
+     *
+     * @param index
+     *            The index must be between 0 and length() - 1.
+     * @param defaultValue
+     *            The default value.
+     * @return A String value.
+     */
+    public String optString(int index, String defaultValue) {
+        Object object = this.optValue(index);
+        return JSONObject.NULL.equals(object) ? defaultValue : object
+                .toString();
+    }
+
+    /**
+     * Get the optional lazy view of the object associated with an index.
+     *
+     * @param index
+     *            The index must be between 0 and length() - 1.
+     * @return A JSONLazyObject, or null if there is none.
+     */
+    public JSONLazyObject optJSONObject(int index) {
+        Object object = this.optValue(index);
+        return object instanceof JSONLazyObject ? (JSONLazyObject) object : null;
+    }
+
+    /**
+     * Get the optional lazy view of the array associated with an index.
+     *
+     * @param index
+     *            The index must be between 0 and length() - 1.
+     * @return A JSONLazyArray, or null if there is none.
+     */
+    public JSONLazyArray optJSONArray(int index) {
+        Object object = this.optValue(index);
+        return object instanceof JSONLazyArray ? (JSONLazyArray) object : null;
+    }
+
+    /**
+     * Like opt, but a value that is not valid counts as no value.
+     */
+    private Object optValue(int index) {
+        try {
+            return this.opt(index);
+        } catch (JSONException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Build the whole array.
+     *
+     * @return A JSONArray with the same content.
+     * @throws JSONException
+     *             If there is a syntax error anywhere in the text.
+     */
+    public JSONArray toJSONArray() throws JSONException {
+        return new JSONArray(new JSONTokener(this.chars, this.start, this.end));
+    }
+
+    /**
+     * Build the whole array, parsing the elements on several threads. The
+     * elements are split into ranges of about the same number of characters,
+     * one per task; the first range is parsed on the calling thread and the
+     * others by the executor. The result is the same as toJSONArray(), apart
+     * from the line numbers in error messages.
+     *
+     * @param executor
+     *            The executor that runs the tasks. It must not be waiting on
+     *            the calling thread.
+     * @param parallelism
+     *            The number of tasks, such as the number of processors.
+     * @return A JSONArray with the same content.
+     * @throws JSONException
+     *             If there is a syntax error anywhere in the text, or the
+     *             calling thread is interrupted.
+     */
+    public JSONArray toJSONArray(ExecutorService executor, int parallelism)
+            throws JSONException {
+        final Object[] values = new Object[this.length];
+        int tasks = Math.max(1, Math.min(parallelism, this.length));
+        int[] splits = new int[tasks + 1];
+        long size = this.end - this.start;
+        int task = 1;
+        for (int i = 1; i < this.length && task < tasks; i += 1) {
+            if ((long) (this.bounds[2 * i] - this.start) * tasks >= size * task) {
+                splits[task] = i;
+                task += 1;
+            }
+        }
+        while (task <= tasks) {
+            splits[task] = this.length;
+            task += 1;
+        }
+        List<Future<?>> futures = new ArrayList<Future<?>>(tasks - 1);
+        try {
+            for (task = 1; task < tasks; task += 1) {
+                final int from = splits[task];
+                final int to = splits[task + 1];
+                futures.add(executor.submit(new Runnable() {
+                    public void run() {
+                        parse(values, from, to);
+                    }
+                }));
+            }
+            this.parse(values, splits[0], splits[1]);
+            for (int i = 0; i < futures.size(); i += 1) {
+                futures.get(i).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JSONException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof JSONException) {
+                throw (JSONException) e.getCause();
+            }
+            throw new JSONException(e.getCause());
+        } finally {
+            for (int i = 0; i < futures.size(); i += 1) {
+                futures.get(i).cancel(true);
+            }
+        }
+        JSONArray ja = new JSONArray();
+        for (int i = 0; i < values.length; i += 1) {
+            ja.put(values[i]);
+        }
+        return ja;
+    }
+
+    /**
+     * Parse the elements from index from to index to into values, stopping
+     * if the thread is interrupted, as when the task is cancelled because
+     * another range failed.
+     */
+    private void parse(Object[] values, int from, int to) throws JSONException {
+        for (int i = from; i < to; i += 1) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new JSONException(new InterruptedException());
+            }
+            int valueStart = this.bounds[2 * i];
+            int valueEnd = this.bounds[2 * i + 1];
+            if (valueStart == valueEnd) {
+                values[i] = JSONObject.NULL;
+            } else {
+                JSONTokener x = new JSONTokener(this.chars, valueStart, valueEnd);
+                values[i] = x.nextValue();
+                if (x.nextClean() != 0) {
+                    throw x.syntaxError("Expected a ',' or ']'");
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the text of the array as it was received.
+     *
+     * @return The source text, from <code>[</code> to <code>]</code>.
+     */
+    public String toString() {
+        return new String(this.chars, this.start, this.end - this.start);
+    }
+}
@@ -0,0 +1,745 @@
+package org.json;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A JSONLazyObject is a read-only view of the text of a JSON object. Building
+ * it takes one pass over the text that records where each key and value
+ * starts and ends; a value is only built when it is read, and then kept.
+ * Nested objects and arrays are returned as further lazy views. When only a
+ * few fields of a large document are read, this costs little more than
+ * scanning the text, instead of building the whole tree of JSONObjects.
+ * <p>
+ * The accessors work like those of JSONObject. Only the structure of the text
+ * is checked up front: a broken value inside a nested object is reported when
+ * that object is read, and a broken number or literal when it is read. Use
+ * {@link #toJSONObject()} to build the whole tree.
+ * <p>
+ * A JSONLazyObject holds on to the whole source text for as long as it or any
+ * view taken from it is reachable.
+ *
+ * @version 2026-10-18
+ */
+public class JSONLazyObject {
+
+    /**
+     * The number of ints recorded for each pair: the key start and end, the
+     * value start and end, and the hash code of the key.
+     */
+    private static final int STRIDE = 5;
+
+    private final char[] chars;
+    private final int start;
+    private int end;
+    private int length;
+    private int[] pairs;
+
+    /**
+     * The keys that are not a quoted run of plain characters, by pair, or null
+     * if there are none.
+     */
+    private String[] keys;
+
+    /**
+     * An open addressing table of pair numbers plus one, by key hash code.
+     */
+    private int[] table;
+    private Object[] values;
+
+    /**
+     * Construct a JSONLazyObject from a source JSON text.
+     *
+     * @param source
+     *            A string beginning with <code>{</code>&nbsp;<small>(left
+     *            brace)</small> and ending with <code>}</code>
+     *            &nbsp;<small>(right brace)</small>.
+     * @throws JSONException
+     *             If the structure of the text is not valid or there is a
+     *             duplicated key.
+     */
+    public JSONLazyObject(String source) throws JSONException {
+        this(source.toCharArray(), 0, source.length());
+    }
+
+    /**
+     * Construct a JSONLazyObject over a range of a character array. The array
+     * is not copied and must not be changed afterwards.
+     *
+     * @param chars
+     *            The characters of the text.
+     * @param offset
+     *            The index of the first character.
+     * @param length
+     *            The number of characters.
+     * @throws JSONException
+     *             If the structure of the text is not valid or there is a
+     *             duplicated key.
+     */
+    public JSONLazyObject(char[] chars, int offset, int length)
+            throws JSONException {
+        this.chars = chars;
+        this.end = offset + length;
+        int p = JSONScanner.skipWhitespace(chars, offset, this.end);
+        if (p >= this.end || chars[p] != '{') {
+            throw JSONScanner.syntaxError(chars, Math.min(p + 1, this.end),
+                    this.end, "A JSONObject text must begin with '{'");
+        }
+        this.start = p;
+        this.pairs = new int[STRIDE * 8];
+        this.scan(p + 1);
+        this.index();
+    }
+
+    private void scan(int p) throws JSONException {
+        char[] chars = this.chars;
+        int end = this.end;
+        for (;;) {
+            p = JSONScanner.skipWhitespace(chars, p, end);
+            if (p >= end) {
+                throw JSONScanner.syntaxError(chars, p, end,
+                        "A JSONObject text must end with '}'");
+            }
+            char c = chars[p];
+            if (c == '}') {
+                this.end = p + 1;
+                return;
+            }
+
+// The key is a quoted string or unquoted text.
+
+            int keyStart;
+            int keyEnd;
+            if (c == '"' || c == '\'') {
+                int q = JSONScanner.skipString(chars, p, end);
+                keyStart = p + 1;
+                keyEnd = q - 1;
+                p = q;
+            } else {
+                keyStart = p;
+                keyEnd = JSONScanner.skipText(chars, p, end);
+                if (keyEnd == keyStart) {
+                    throw JSONScanner.syntaxError(chars, p, end, "Missing value");
+                }
+                p = keyEnd;
+            }
+
+// The key is followed by ':'.
+
+            p = JSONScanner.skipWhitespace(chars, p, end);
+            if (p >= end || chars[p] != ':') {
+                throw JSONScanner.syntaxError(chars, Math.min(p + 1, end), end,
+                        "Expected a ':' after a key");
+            }
+            p = JSONScanner.skipWhitespace(chars, p + 1, end);
+            int valueStart = p;
+            p = JSONScanner.skipValue(chars, p, end);
+            if (p == valueStart) {
+                throw JSONScanner.syntaxError(chars, p, end, "Missing value");
+            }
+            this.add(keyStart, keyEnd, valueStart, p, c == '"' || c == '\'');
+
+// Pairs are separated by ','.
+
+            p = JSONScanner.skipWhitespace(chars, p, end);
+            c = p < end ? chars[p] : 0;
+            if (c == ',' || c == ';') {
+                p = JSONScanner.skipWhitespace(chars, p + 1, end);
+                if (p < end && chars[p] == '}') {
+                    this.end = p + 1;
+                    return;
+                }
+            } else if (c == '}') {
+                this.end = p + 1;
+                return;
+            } else {
+                throw JSONScanner.syntaxError(chars, Math.min(p + 1, end), end,
+                        "Expected a ',' or '}'");
+            }
+        }
+    }
+
+    private void add(int keyStart, int keyEnd, int valueStart, int valueEnd,
+            boolean quoted) throws JSONException {
+        int i = this.length;
+        if (STRIDE * (i + 1) > this.pairs.length) {
+            int[] grown = new int[this.pairs.length * 2];
+            System.arraycopy(this.pairs, 0, grown, 0, this.pairs.length);
+            this.pairs = grown;
+        }
+        String key = null;
+        if (!quoted) {
+            key = JSONObject.stringToValue(this.chars, keyStart,
+                    keyEnd - keyStart).toString();
+        } else {
+            for (int p = keyStart; p < keyEnd; p += 1) {
+                if (this.chars[p] == '\\') {
+                    key = new JSONTokener(this.chars, keyStart, this.end)
+                            .nextString(this.chars[keyStart - 1]);
+                    break;
+                }
+            }
+        }
+        int hash;
+        if (key != null) {
+            if (this.keys == null) {
+                this.keys = new String[this.pairs.length / STRIDE];
+            } else if (this.keys.length <= i) {
+                String[] grown = new String[this.pairs.length / STRIDE];
+                System.arraycopy(this.keys, 0, grown, 0, this.keys.length);
+                this.keys = grown;
+            }
+            this.keys[i] = key;
+            hash = key.hashCode();
+        } else {
+            hash = 0;
+            for (int p = keyStart; p < keyEnd; p += 1) {
+                hash = 31 * hash + this.chars[p];
+            }
+        }
+        int base = STRIDE * i;
+        this.pairs[base] = keyStart;
+        this.pairs[base + 1] = keyEnd;
+        this.pairs[base + 2] = valueStart;
+        this.pairs[base + 3] = valueEnd;
+        this.pairs[base + 4] = hash;
+        this.length = i + 1;
+    }
+
+    private void index() throws JSONException {
+        int size = 8;
+        while (size < this.length * 2) {
+            size <<= 1;
+        }
+        int[] table = new int[size];
+        int mask = size - 1;
+        for (int i = 0; i < this.length; i += 1) {
+            int slot = spread(this.pairs[STRIDE * i + 4]) & mask;
+            while (table[slot] != 0) {
+                if (this.sameKey(table[slot] - 1, i)) {
+                    throw new JSONException("Duplicate key \"" + this.key(i)
+                            + "\"");
+                }
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i + 1;
+        }
+        this.table = table;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private boolean sameKey(int i, int j) {
+        if (this.pairs[STRIDE * i + 4] != this.pairs[STRIDE * j + 4]) {
+            return false;
+        }
+        return this.key(i).equals(this.key(j));
+    }
+
+    /**
+     * Find the pair of a key.
+     *
+     * @return The pair number, or -1.
+     */
+    private int find(String key) {
+        int hash = key.hashCode();
+        int mask = this.table.length - 1;
+        for (int slot = spread(hash) & mask;; slot = (slot + 1) & mask) {
+            int i = this.table[slot] - 1;
+            if (i < 0) {
+                return -1;
+            }
+            int base = STRIDE * i;
+            if (this.pairs[base + 4] != hash) {
+                continue;
+            }
+            if (this.keys != null && i < this.keys.length && this.keys[i] != null) {
+                if (this.keys[i].equals(key)) {
+                    return i;
+                }
+                continue;
+            }
+            int keyStart = this.pairs[base];
+            int keyLength = this.pairs[base + 1] - keyStart;
+            if (keyLength == key.length()) {
+                int k = 0;
+                while (k < keyLength && this.chars[keyStart + k] == key.charAt(k)) {
+                    k += 1;
+                }
+                if (k == keyLength) {
+                    return i;
+                }
+            }
+        }
+    }
+
+    private String key(int i) {
+        if (this.keys != null && i < this.keys.length && this.keys[i] != null) {
+            return this.keys[i];
+        }
+        int keyStart = this.pairs[STRIDE * i];
+        return new String(this.chars, keyStart, this.pairs[STRIDE * i + 1]
+                - keyStart);
+    }
+
+    private Object value(int i) throws JSONException {
+        if (this.values == null) {
+            this.values = new Object[this.length];
+        }
+        Object value = this.values[i];
+        if (value == null) {
+            value = JSONScanner.value(this.chars, this.pairs[STRIDE * i + 2],
+                    this.pairs[STRIDE * i + 3]);
+            this.values[i] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Get the value object associated with a key.
+     *
+     * @param key
+     *            A key string.
+     * @return The object associated with the key: a JSONLazyObject,
+     *         JSONLazyArray, String, Number, Boolean or JSONObject.NULL.
+     * @throws JSONException
+     *             if the key is not found or the value is not valid.
+     */
+    public Object get(String key) throws JSONException {
+        if (key == null) {
+            throw new JSONException("Null key.");
+        }
+        Object object = this.opt(key);
+        if (object == null) {
+            throw new JSONException("JSONObject[" + JSONObject.quote(key)
+                    + "] not found.");
+        }
+        return object;
+    }
+
+    /**
+     * Get an optional value associated with a key.
+     *
+     * @param key
+     *            A key string.
+     * @return An object which is the value, or null if there is no value.
+     * @throws JSONException
+     *             if the value is not valid.
+     */
+    public Object opt(String key) throws JSONException {
+        if (key == null) {
+            return null;
+        }
+        int i = this.find(key);
+        return i < 0 ? null : this.value(i);
+    }
+
+    /**
+     * Get the boolean value associated with a key.
+     *
+     * @param key
+     *            A key string.
+     * @return The truth.
+     * @throws JSONException
+     *             if the value is not a Boolean or the String "true" or
+     *             "false".
+     */
+    public boolean getBoolean(String key) throws JSONException {
+        Object object = this.get(key);
+        if (object.equals(Boolean.FALSE)
+                || (object instanceof String && ((String) object)
+                        .equalsIgnoreCase("false"))) {
+            return false;
+        } else if (object.equals(Boolean.TRUE)
+                || (object instanceof String && ((String) object)
+                        .equalsIgnoreCase("true"))) {
+            return true;
+        }
+        throw new JSONException("JSONObject[" + JSONObject.quote(key)
+                + "] is not a Boolean.");
+    }
+
+    /**
+     * Get the double value associated with a key.
+     *
+     * @param key
+     *            A key string.
+     * @return The numeric value.
+     * @throws JSONException
+     *             if the key is not found or if the value is not a Number
+     *             object and cannot be converted to a number.
+     */
+    public double getDouble(String key) throws JSONException {
+        Object object = this.get(key);
+        try {
+            return object instanceof Number ? ((Number) object).doubleValue()
+                    : Double.parseDouble((String) object);
+        } catch (Exception e) {
+            throw new JSONException("JSONObject[" + JSONObject.quote(key)
+                    + "] is not a number.");
+        }
+    }
+
+    /**
+     * Get the int value associated with a key.
+     *
+     * @param key
+     *            A key string.
+     * @return The integer value.
+     * @throws JSONException
+     *             if the key is not found or if the value cannot be converted
+     *             to an integer.
+     */
+    public int getInt(String key) throws JSONException {
+        Object object = this.get(key);
+        try {
+            return object instanceof Number ? ((Number) object).intValue()
+                    : Integer.parseInt((String) object);
+        } catch (Exception e) {
+            throw new JSONException("JSONObject[" + JSONObject.quote(key)
+                    + "] is not an int.");
+        }
+    }
+
+    /**
+     * Get the long value associated with a key.
+     *
+     * @param key
+     *            A key string.
+     * @return The long value.
+     * @throws JSONException
+     *             if the key is not found or if the value cannot be converted
+     *             to a long.
+     */
+    public long getLong(String key) throws JSONException {
+        Object object = this.get(key);
+        try {
+            return object instanceof Number ? ((Number) object).longValue()
+                    : Long.parseLong((String) object);
+        } catch (Exception e) {
+            throw new JSONException("JSONObject[" + JSONObject.quote(key)
+                    + "] is not a long.");
+        }
+    }
+
+    /**
+     * Get the string associated with a key.
+     *
+     * @param key
+     *            A key string.
+     * @return A string which is the value.
+     * @throws JSONException
+     *             if there is no string value for the key.
+     */
+    public String getString(String key) throws JSONException {
+        Object object = this.get(key);
+        if (object instanceof String) {
+            return (String) object;
+        }
+        throw new JSONException("JSONObject[" + JSONObject.quote(key)
+                + "] not a string.");
+    }
+
+    /**
+     * Get the lazy view of the object associated with a key.
+     *
+     * @param key
+     *            A key string.
+     * @return A JSONLazyObject which is the value.
+     * @throws JSONException
+     *             if the key is not found or if the value is not an object.
+     */
+    public JSONLazyObject getJSONObject(String key) throws JSONException {
+        Object object = this.get(key);
+        if (object instanceof JSONLazyObject) {
+            return (JSONLazyObject) object;
+        }
+        throw new JSONException("JSONObject[" + JSONObject.quote(key)
+                + "] is not a JSONObject.");
+    }
+
+    /**
+     * Get the lazy view of the array associated with a key.
+     *
+     * @param key
+     *            A key string.
+     * @return A JSONLazyArray which is the value.
+     * @throws JSONException
+     *             if the key is not found or if the value is not an array.
+     */
+    public JSONLazyArray getJSONArray(String key) throws JSONException {
+        Object object = this.get(key);
+        if (object instanceof JSONLazyArray) {
+            return (JSONLazyArray) object;
+        }
+        throw new JSONException("JSONObject[" + JSONObject.quote(key)
+                + "] is not a JSONArray.");
+    }
+
+    /**
+     * Determine if the JSONLazyObject contains a specific key.
+     *
+     * @param key
+     *            A key string.
+     * @return true if the key exists in the JSONLazyObject.
+     */
+    public boolean has(String key) {
+        return key != null && this.find(key) >= 0;
+    }
+
+    /**
+     * Determine if the value associated with the key is null or if there is
+     * no value.
+     *
+     * @param key
+     *            A key string.
+     * @return true if there is no value associated with the key or if the
+     *         value is the JSONObject.NULL object.
+     */
+    public boolean isNull(String key) {
+        return JSONObject.NULL.equals(this.optValue(key));
+    }
+
+    /**
+     * Get an enumeration of the keys of the JSONLazyObject, in the order of
+     * the text.
+     *
+     * @return An iterator of the keys.
+     */
+    public Iterator<String> keys() {
+        return new Iterator<String>() {
+            private int next;
+
+            public boolean hasNext() {
+                return this.next < JSONLazyObject.this.length;
+            }
+
+            public String next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return JSONLazyObject.this.key(this.next++);
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Get the number of keys stored in the JSONLazyObject.
+     *
+     * @return The number of keys in the JSONLazyObject.
+     */
+    public int length() {
+        return this.length;
+    }
+
+    /**
+     * Get an optional boolean associated with a key. It returns false if
+     * there is no such key, or if the value is not Boolean.TRUE or the String
+     * "true".
+     *
+     * @param key
+     *            A key string.
+     * @return The truth.
+     */
+    public boolean optBoolean(String key) {
+        return this.optBoolean(key, false);
+    }
+
+    /**
+     * Get an optional boolean associated with a key. It returns the
+     * defaultValue if there is no such key, or if it is not a Boolean or the
+     * String "true" or "false" (case insensitive).
+     *
+     * @param key
+     *            A key string.
+     * @param defaultValue
+     *            The default.
+     * @return The truth.
+     */
+    public boolean optBoolean(String key, boolean defaultValue) {
+        try {
+            return this.getBoolean(key);
+        } catch (Exception e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Get an optional double associated with a key, or NaN if there is no
+     * such key or if its value is not a number.
+     *
+     * @param key
+     *            A string which is the key.
+     * @return An object which is the value.
+     */
+    public double optDouble(String key) {
+        return this.optDouble(key, Double.NaN);
+    }
+
+    /**
+     * Get an optional double associated with a key, or the defaultValue if
+     * there is no such key or if its value is not a number.
+     *
+     * @param key
+     *            A key string.
+     * @param defaultValue
+     *            The default.
+     * @return An object which is the value.
+     */
+    public double optDouble(String key, double defaultValue) {
+        try {
+            return this.getDouble(key);
+        } catch (Exception e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Get an optional int value associated with a key, or zero if there is
+     * no such key or if the value is not a number.
+     *
+     * @param key
+     *            A key string.
+     * @return An object which is the value.
+     */
+    public int optInt(String key) {
+        return this.optInt(key, 0);
+    }
+
+    /**
+     * Get an optional int value associated with a key, or the default if
+     * there is no such key or if the value is not a number.
+     *
+     * @param key
+     *            A key string.
+     * @param defaultValue
+     *            The default.
+     * @return An object which is the value.
+     */
+    public int optInt(String key, int defaultValue) {
+        try {
+            return this.getInt(key);
+        } catch (Exception e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Get an optional long value associated with a key, or zero if there is
+     * no such key or if the value is not a number.
+     *
+     * @param key
+     *            A key string.
+     * @return An object which is the value.
+     */
+    public long optLong(String key) {
+        return this.optLong(key, 0);
+    }
+
+    /**
+     * Get an optional long value associated with a key, or the default if
+     * there is no such key or if the value is not a number.
+     *
+     * @param key
+     *            A key string.
+     * @param defaultValue
+     *            The default.
+     * @return An object which is the value.
+     */
+    public long optLong(String key, long defaultValue) {
+        try {
+            return this.getLong(key);
+        } catch (Exception e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Get an optional string associated with a key. It returns an empty
+     * string if there is no such key. If the value is not a string and is not
+     * null, then it is converted to a string.
+     *
+     * @param key
+     *            A key string.
+     * @return A string which is the value.
+     */
+    public String optString(String key) {
+        return this.optString(key, "");
+    }
+
+    /**
+     * Get an optional string associated with a key. It returns the
+     * defaultValue if there is no such key.
+     *
+     * @param key
+     *            A key string.
+     * @param defaultValue
+     *            The default.
+     * @return A string which is the value.
+     */
+    public String optString(String key, String defaultValue) {
+        Object object = this.optValue(key);
+        return JSONObject.NULL.equals(object) ? defaultValue : object.toString();
+    }
+
+    /**
+     * Get an optional lazy view of the object associated with a key.
+     *
+     * @param key
+     *            A key string.
+     * @return A JSONLazyObject, or null if there is none.
+     */
+    public JSONLazyObject optJSONObject(String key) {
+        Object object = this.optValue(key);
+        return object instanceof JSONLazyObject ? (JSONLazyObject) object : null;
+    }
+
+    /**
+     * Get an optional lazy view of the array associated with a key.
+     *
+     * @param key
+     *            A key string.
+     * @return A JSONLazyArray, or null if there is none.
+     */
+    public JSONLazyArray optJSONArray(String key) {
+        Object object = this.optValue(key);
+        return object instanceof JSONLazyArray ? (JSONLazyArray) object : null;
+    }
+
+    /**
+     * Like opt, but a value that is not valid counts as no value.
+     */
+    private Object optValue(String key) {
+        try {
+            return this.opt(key);
+        } catch (JSONException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Build the whole object.
+     *
+     * @return A JSONObject with the same content.
+     * @throws JSONException
+     *             If there is a syntax error anywhere in the text.
+     */
+    public JSONObject toJSONObject() throws JSONException {
+        return new JSONObject(new JSONTokener(this.chars, this.start, this.end));
+    }
+
+    /**
+     * Get the text of the object as it was received.
+     *
+     * @return The source text, from <code>{</code> to <code>}</code>.
+     */
+    public String toString() {
+        return new String(this.chars, this.start, this.end - this.start);
+    }
+}
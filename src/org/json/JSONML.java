@@ -24,6 +24,7 @@ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
 SOFTWARE.
 */
 
+import java.util.Arrays;
 import java.util.Iterator;
 
 
@@ -38,7 +39,10 @@ import java.util.Iterator;
 public class JSONML {
 
     /**
-     * Parse XML values and store them in a JSONArray.
+     * Parse XML values and store them in a JSONArray. The elements that are
+     * open are kept on an explicit stack rather than parsed by recursion, so
+     * the nesting is only limited by the tokener's
+     * {@link JSONTokener#getMaxDepth() maximum depth}.
      * @param x       The XMLTokener containing the source string.
      * @param arrayForm true if array form, false if object form.
      * @param ja      The JSONArray that is containing the current tag or null
@@ -59,6 +63,8 @@ public class JSONML {
         JSONObject newjo = null;
         Object     token;
         String     tagName = null;
+        Object[]   stack = null;
+        int        depth = 0;
 
 // Test for and skip past these forms:
 //      <!-- ... -->
@@ -87,7 +93,35 @@ public class JSONML {
                         if (x.nextToken() != XML.GT) {
                             throw x.syntaxError("Misshaped close tag");
                         }
-                        return token;
+                        if (depth == 0) {
+                            return token;
+                        }
+
+// The content of the innermost open element is complete
+
+                        closeTag = (String)token;
+                        depth -= 1;
+                        newja = ja;
+                        ja = (JSONArray)stack[depth * 3];
+                        tagName = (String)stack[depth * 3 + 1];
+                        newjo = (JSONObject)stack[depth * 3 + 2];
+                        stack[depth * 3] = null;
+                        stack[depth * 3 + 2] = null;
+                        if (!closeTag.equals(tagName)) {
+                            throw x.syntaxError("Mismatched '" + tagName +
+                                    "' and '" + closeTag + "'");
+                        }
+                        tagName = null;
+                        if (!arrayForm && newja.length() > 0) {
+                            newjo.put("childNodes", newja);
+                        }
+                        if (ja == null) {
+                            if (arrayForm) {
+                                return newja;
+                            } else {
+                                return newjo;
+                            }
+                        }
                     } else if (token == XML.BANG) {
 
 // <!
@@ -136,6 +170,9 @@ public class JSONML {
                     if (!(token instanceof String)) {
                         throw x.syntaxError("Bad tagName '" + token + "'.");
                     }
+                    if (depth >= x.getMaxDepth()) {
+                        throw x.syntaxError("Nesting too deep");
+                    }
                     tagName = (String)token;
                     newja = new JSONArray();
                     newjo = new JSONObject();
@@ -204,24 +241,19 @@ public class JSONML {
                         if (token != XML.GT) {
                             throw x.syntaxError("Misshaped tag");
                         }
-                        closeTag = (String)parse(x, arrayForm, newja);
-                        if (closeTag != null) {
-                            if (!closeTag.equals(tagName)) {
-                                throw x.syntaxError("Mismatched '" + tagName +
-                                        "' and '" + closeTag + "'");
-                            }
-                            tagName = null;
-                            if (!arrayForm && newja.length() > 0) {
-                                newjo.put("childNodes", newja);
-                            }
-                            if (ja == null) {
-                                if (arrayForm) {
-                                    return newja;
-                                } else {
-                                    return newjo;
-                                }
-                            }
+
+// Save the enclosing element and scan the content of this one
+
+                        if (stack == null) {
+                            stack = new Object[48];
+                        } else if (depth * 3 == stack.length) {
+                            stack = Arrays.copyOf(stack, stack.length * 2);
                         }
+                        stack[depth * 3] = ja;
+                        stack[depth * 3 + 1] = tagName;
+                        stack[depth * 3 + 2] = newjo;
+                        depth += 1;
+                        ja = newja;
                     }
                 }
             } else {
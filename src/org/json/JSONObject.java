@@ -25,16 +25,19 @@ package org.json;
  */
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -136,6 +139,29 @@ public class JSONObject {
         }
     }
 
+    /**
+     * A bean property found by populateMap: the JSON key and the getter that
+     * produces its value.
+     */
+    static final class Getter {
+        final String key;
+        final Method method;
+
+        Getter(String key, Method method) {
+            this.key = key;
+            this.method = method;
+        }
+    }
+
+    /**
+     * The getters of each bean class that has been converted, so that
+     * getMethods() and the name matching are done once per class rather than
+     * once per bean. Looking them up takes no lock. The getters refer to
+     * their class, so a class loader stays reachable until memory runs low
+     * enough for the garbage collector to clear them.
+     */
+    private static final ClassCache<Getter[]> GETTERS = new ClassCache<Getter[]>();
+
     /**
      * The map where the JSONObject's properties are kept.
      */
@@ -187,53 +213,16 @@ public class JSONObject {
      * @param x
      *            A JSONTokener object containing the source string.
      * @throws JSONException
-     *             If there is a syntax error in the source string or a
-     *             duplicated key.
+     *             If there is a syntax error in the source string, a
+     *             duplicated key, or nesting deeper than the tokener's
+     *             maximum depth.
      */
     public JSONObject(JSONTokener x) throws JSONException {
         this();
-        char c;
-        String key;
-
         if (x.nextClean() != '{') {
             throw x.syntaxError("A JSONObject text must begin with '{'");
         }
-        for (;;) {
-            c = x.nextClean();
-            switch (c) {
-            case 0:
-                throw x.syntaxError("A JSONObject text must end with '}'");
-            case '}':
-                return;
-            default:
-                x.back();
-                key = x.nextValue().toString();
-            }
-
-// The key is followed by ':'.
-
-            c = x.nextClean();
-            if (c != ':') {
-                throw x.syntaxError("Expected a ':' after a key");
-            }
-            this.putOnce(key, x.nextValue());
-
-// Pairs are separated by ','.
-
-            switch (x.nextClean()) {
-            case ';':
-            case ',':
-                if (x.nextClean() == '}') {
-                    return;
-                }
-                x.back();
-                break;
-            case '}':
-                return;
-            default:
-                throw x.syntaxError("Expected a ',' or '}'");
-            }
-        }
+        x.parse(this);
     }
 
     /**
@@ -736,6 +725,16 @@ public class JSONObject {
         return this.map.keySet();
     }
 
+    /**
+     * Get the entries of the JSONObject, used by the serializers in this
+     * package to avoid a second lookup per key.
+     *
+     * @return An entrySet.
+     */
+    Set<Entry<String, Object>> entrySet() {
+        return this.map.entrySet();
+    }
+
     /**
      * Get the number of keys stored in the JSONObject.
      *
@@ -984,7 +983,36 @@ public class JSONObject {
     }
 
     private void populateMap(Object bean) {
-        Class klass = bean.getClass();
+        Getter[] getters = getters(bean.getClass());
+        for (int i = 0; i < getters.length; i += 1) {
+            try {
+                Getter getter = getters[i];
+                Object result = getter.method.invoke(bean, (Object[]) null);
+                if (result != null) {
+                    this.map.put(getter.key, wrap(result));
+                }
+            } catch (Exception ignore) {
+            }
+        }
+    }
+
+    /**
+     * Get the bean getters of a class, finding them on first use.
+     *
+     * @param klass
+     *            A bean class.
+     * @return The getters, in the order of klass.getMethods().
+     */
+    static Getter[] getters(Class<?> klass) {
+        Getter[] getters = GETTERS.get(klass);
+        if (getters == null) {
+            getters = findGetters(klass);
+            GETTERS.put(klass, getters);
+        }
+        return getters;
+    }
+
+    private static Getter[] findGetters(Class<?> klass) {
 
 // If klass is a System class then set includeSuperClass to false.
 
@@ -992,41 +1020,47 @@ public class JSONObject {
 
         Method[] methods = includeSuperClass ? klass.getMethods() : klass
                 .getDeclaredMethods();
+        List<Getter> getters = new ArrayList<Getter>(methods.length);
         for (int i = 0; i < methods.length; i += 1) {
-            try {
-                Method method = methods[i];
-                if (Modifier.isPublic(method.getModifiers())) {
-                    String name = method.getName();
-                    String key = "";
-                    if (name.startsWith("get")) {
-                        if ("getClass".equals(name)
-                                || "getDeclaringClass".equals(name)) {
-                            key = "";
-                        } else {
-                            key = name.substring(3);
-                        }
-                    } else if (name.startsWith("is")) {
-                        key = name.substring(2);
+            Method method = methods[i];
+            if (Modifier.isPublic(method.getModifiers())) {
+                String name = method.getName();
+                String key = "";
+                if (name.startsWith("get")) {
+                    if ("getClass".equals(name)
+                            || "getDeclaringClass".equals(name)) {
+                        key = "";
+                    } else {
+                        key = name.substring(3);
+                    }
+                } else if (name.startsWith("is")) {
+                    key = name.substring(2);
+                }
+                if (key.length() > 0
+                        && Character.isUpperCase(key.charAt(0))
+                        && method.getParameterTypes().length == 0) {
+                    if (key.length() == 1) {
+                        key = key.toLowerCase();
+                    } else if (!Character.isUpperCase(key.charAt(1))) {
+                        key = key.substring(0, 1).toLowerCase()
+                                + key.substring(1);
                     }
-                    if (key.length() > 0
-                            && Character.isUpperCase(key.charAt(0))
-                            && method.getParameterTypes().length == 0) {
-                        if (key.length() == 1) {
-                            key = key.toLowerCase();
-                        } else if (!Character.isUpperCase(key.charAt(1))) {
-                            key = key.substring(0, 1).toLowerCase()
-                                    + key.substring(1);
-                        }
 
-                        Object result = method.invoke(bean, (Object[]) null);
-                        if (result != null) {
-                            this.map.put(key, wrap(result));
+// A public method of a public class passes the access check anyway, so
+// skip the check on every invoke.
+
+                    if (Modifier.isPublic(method.getDeclaringClass()
+                            .getModifiers())) {
+                        try {
+                            method.setAccessible(true);
+                        } catch (RuntimeException ignore) {
                         }
                     }
+                    getters.add(new Getter(key, method));
                 }
-            } catch (Exception ignore) {
             }
         }
+        return getters.toArray(new Getter[getters.size()]);
     }
 
     /**
@@ -1336,18 +1370,20 @@ public class JSONObject {
      * @return A simple JSON value.
      */
     public static Object stringToValue(String string) {
-        Double d;
         if (string.equals("")) {
             return string;
         }
-        if (string.equalsIgnoreCase("true")) {
-            return Boolean.TRUE;
-        }
-        if (string.equalsIgnoreCase("false")) {
-            return Boolean.FALSE;
-        }
-        if (string.equalsIgnoreCase("null")) {
-            return JSONObject.NULL;
+        char b = string.charAt(0);
+        if (b == 't' || b == 'T' || b == 'f' || b == 'F' || b == 'n' || b == 'N') {
+            if (string.equalsIgnoreCase("true")) {
+                return Boolean.TRUE;
+            }
+            if (string.equalsIgnoreCase("false")) {
+                return Boolean.FALSE;
+            }
+            if (string.equalsIgnoreCase("null")) {
+                return JSONObject.NULL;
+            }
         }
 
         /*
@@ -1355,29 +1391,242 @@ public class JSONObject {
          * produced, then the value will just be a string.
          */
 
-        char b = string.charAt(0);
         if ((b >= '0' && b <= '9') || b == '-') {
-            try {
-                if (string.indexOf('.') > -1 || string.indexOf('e') > -1
-                        || string.indexOf('E') > -1) {
-                    d = Double.valueOf(string);
-                    if (!d.isInfinite() && !d.isNaN()) {
-                        return d;
-                    }
+            Number number = stringToNumber(string.toCharArray(), 0,
+                    string.length());
+            if (number != null) {
+                return number;
+            }
+        }
+        return string;
+    }
+
+    /**
+     * Convert unquoted text to a simple JSON value in the same way as
+     * {@link #stringToValue(String)}, reading the characters where they are
+     * so that keywords and numbers do not need a String.
+     *
+     * @param chars
+     *            The characters, already trimmed.
+     * @param offset
+     *            The index of the first character.
+     * @param length
+     *            The number of characters, at least one.
+     * @return A simple JSON value.
+     */
+    static Object stringToValue(char[] chars, int offset, int length) {
+        char b = chars[offset];
+        if (length == 4 && matches(chars, offset, "true")) {
+            return Boolean.TRUE;
+        }
+        if (length == 5 && matches(chars, offset, "false")) {
+            return Boolean.FALSE;
+        }
+        if (length == 4 && matches(chars, offset, "null")) {
+            return JSONObject.NULL;
+        }
+        if ((b >= '0' && b <= '9') || b == '-') {
+            Number number = stringToNumber(chars, offset, length);
+            if (number != null) {
+                return number;
+            }
+        }
+        return new String(chars, offset, length);
+    }
+
+    private static boolean matches(char[] chars, int offset, String lowerCase) {
+        for (int i = 0; i < lowerCase.length(); i += 1) {
+            char c = chars[offset + i];
+            if (c != lowerCase.charAt(i)
+                    && Character.toLowerCase(c) != lowerCase.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Powers of ten that a double holds exactly.
+     */
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12,
+        1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * Convert text that starts with a digit or '-' to a number in a single
+     * pass, without throwing. As in stringToValue, an integer becomes an
+     * Integer if it fits, otherwise a Long, and is only accepted in its
+     * canonical form (no leading zeros, no "-0"); text with a fraction or an
+     * exponent becomes a finite Double.
+     *
+     * @return The number, or null if the text stays a String.
+     */
+    static Number stringToNumber(char[] chars, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        boolean negative = chars[i] == '-';
+        if (negative) {
+            i += 1;
+        }
+
+// Integer part. The value is accumulated negatively so that Long.MIN_VALUE
+// fits.
+
+        int integerStart = i;
+        long value = 0;
+        boolean overflow = false;
+        while (i < end && chars[i] >= '0' && chars[i] <= '9') {
+            int digit = chars[i] - '0';
+            if (value < (Long.MIN_VALUE + digit) / 10) {
+                overflow = true;
+            } else {
+                value = value * 10 - digit;
+            }
+            i += 1;
+        }
+        int integerDigits = i - integerStart;
+        if (i == end) {
+            if (integerDigits == 0 || overflow
+                    || (integerDigits > 1 && chars[integerStart] == '0')) {
+                return null;
+            }
+            if (negative) {
+                if (value == 0) {
+                    return null;
+                }
+            } else {
+                if (value == Long.MIN_VALUE) {
+                    return null;
+                }
+                value = -value;
+            }
+            if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                return Integer.valueOf((int) value);
+            }
+            return Long.valueOf(value);
+        }
+
+// Double.valueOf ignores trailing whitespace and control characters, so text
+// that is not an integer may end with them.
+
+        while (end > i && chars[end - 1] <= ' ') {
+            end -= 1;
+        }
+
+// Hexadecimal floating point text is rare enough to leave to Double.
+
+        if (integerDigits == 1 && chars[integerStart] == '0'
+                && (chars[i] == 'x' || chars[i] == 'X')) {
+            return hexToDouble(new String(chars, offset, length));
+        }
+
+// Fraction and exponent. Up to 18 significant digits are collected exactly.
+
+        long significand = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+        for (int j = integerStart; j < i; j += 1) {
+            if (significantDigits > 0 || chars[j] != '0') {
+                if (significantDigits < 18) {
+                    significand = significand * 10 + (chars[j] - '0');
                 } else {
-                    Long myLong = new Long(string);
-                    if (string.equals(myLong.toString())) {
-                        if (myLong == myLong.intValue()) {
-                            return myLong.intValue();
-                        } else {
-                            return myLong;
-                        }
+                    exponent += 1;
+                }
+                significantDigits += 1;
+            }
+        }
+        boolean fraction = false;
+        int fractionDigits = 0;
+        if (chars[i] == '.') {
+            fraction = true;
+            i += 1;
+            while (i < end && chars[i] >= '0' && chars[i] <= '9') {
+                if (significantDigits > 0 || chars[i] != '0') {
+                    if (significantDigits < 18) {
+                        significand = significand * 10 + (chars[i] - '0');
+                        exponent -= 1;
                     }
+                    significantDigits += 1;
+                } else {
+                    exponent -= 1;
                 }
-            } catch (Exception ignore) {
+                fractionDigits += 1;
+                i += 1;
             }
         }
-        return string;
+        if (integerDigits + fractionDigits == 0) {
+            return null;
+        }
+        boolean hasExponent = false;
+        if (i < end && (chars[i] == 'e' || chars[i] == 'E')) {
+            hasExponent = true;
+            i += 1;
+            boolean negativeExponent = false;
+            if (i < end && (chars[i] == '+' || chars[i] == '-')) {
+                negativeExponent = chars[i] == '-';
+                i += 1;
+            }
+            int exponentStart = i;
+            int explicit = 0;
+            while (i < end && chars[i] >= '0' && chars[i] <= '9') {
+                if (explicit < 100000) {
+                    explicit = explicit * 10 + (chars[i] - '0');
+                }
+                i += 1;
+            }
+            if (i == exponentStart) {
+                return null;
+            }
+            exponent += negativeExponent ? -explicit : explicit;
+        }
+        if (!fraction && !hasExponent) {
+            return null;
+        }
+
+// Double.valueOf also accepts a type suffix.
+
+        if (i < end && (chars[i] == 'f' || chars[i] == 'F' || chars[i] == 'd'
+                || chars[i] == 'D')) {
+            i += 1;
+        }
+        if (i != end) {
+            return null;
+        }
+
+        double d;
+        if (significand == 0) {
+            d = 0.0;
+        } else if (significantDigits <= 15 && exponent >= -22 && exponent <= 22) {
+
+// Both the significand and the power of ten are exact, so a single
+// multiplication or division is correctly rounded.
+
+            d = exponent < 0 ? significand / POWERS_OF_TEN[-exponent]
+                    : significand * POWERS_OF_TEN[exponent];
+        } else {
+            d = Double.parseDouble(new String(chars, offset, length));
+            if (Double.isInfinite(d)) {
+                return null;
+            }
+            return Double.valueOf(d);
+        }
+        return Double.valueOf(negative ? -d : d);
+    }
+
+    private static Double hexToDouble(String string) {
+        if (string.indexOf('.') < 0 && string.indexOf('e') < 0
+                && string.indexOf('E') < 0) {
+            return null;
+        }
+        try {
+            Double d = Double.valueOf(string);
+            if (!d.isInfinite() && !d.isNaN()) {
+                return d;
+            }
+        } catch (Exception ignore) {
+        }
+        return null;
     }
 
     /**
@@ -1589,6 +1838,26 @@ public class JSONObject {
         return this.write(writer, 0, 0);
     }
 
+    /**
+     * Write the contents of the JSONObject as compact UTF-8 JSON text to an
+     * OutputStream, without building an intermediate String.
+     * <p>
+     * Warning: This method assumes that the data structure is acyclical.
+     *
+     * @return The OutputStream.
+     * @throws JSONException
+     */
+    public OutputStream write(OutputStream out) throws JSONException {
+        JSONByteWriter writer = new JSONByteWriter(out);
+        writer.value(this);
+        try {
+            writer.flush();
+        } catch (IOException exception) {
+            throw new JSONException(exception);
+        }
+        return out;
+    }
+
     static final Writer writeValue(Writer writer, Object value,
             int indentFactor, int indent) throws JSONException, IOException {
         if (value == null || value.equals(null)) {
@@ -1647,7 +1916,7 @@ public class JSONObject {
 
             if (length == 1) {
                 Object key = keys.next();
-                writer.write(quote(key.toString()));
+                quote(key.toString(), writer);
                 writer.write(':');
                 if (indentFactor > 0) {
                     writer.write(' ');
@@ -1664,7 +1933,7 @@ public class JSONObject {
                         writer.write('\n');
                     }
                     indent(writer, newindent);
-                    writer.write(quote(key.toString()));
+                    quote(key.toString(), writer);
                     writer.write(':');
                     if (indentFactor > 0) {
                         writer.write(' ');
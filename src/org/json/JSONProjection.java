@@ -0,0 +1,373 @@
+package org.json;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JSONProjection parses only the parts of a JSON text that are named by a set
+ * of paths, and skips everything else without building it. The result has the
+ * same shape as the full document, pruned to the selected values:
+ * <pre>
+ * JSONProjection projection = new JSONProjection("data.items[*].id", "meta.total");
+ * JSONObject jo = projection.parseObject(new JSONTokener(reader));
+ * // {"data":{"items":[{"id":1},{"id":2}]},"meta":{"total":2}}
+ * </pre>
+ * A path is a sequence of steps. <code>name</code> or <code>.name</code>
+ * selects the member of an object with that key, <code>*</code> selects every
+ * member, <code>[n]</code> selects the element of an array at index n and
+ * <code>[*]</code> selects every element. The value at the end of a path is
+ * parsed in full.
+ * <p>
+ * An object or array on a selected path is kept even if nothing inside it is
+ * selected, so <code>items[*].id</code> gives one object per item. An array
+ * only contains its selected elements, so <code>items[2]</code> gives an array
+ * of at most one element. A value that is not an object or array where the
+ * path expects one is left out.
+ * <p>
+ * Skipped strings are scanned for their closing quote and skipped objects and
+ * arrays for their closing bracket, so a skipped subtree costs no objects but
+ * is not checked beyond its quotes and brackets. The names of skipped members
+ * are still read; give the tokener a {@link JSONKeyPool} to avoid copying
+ * them. A JSONProjection is immutable once constructed and may be shared by
+ * any number of threads.
+ *
+ * @version 2026-10-18
+ */
+public class JSONProjection {
+
+    /**
+     * Returned for a value that is not on any path.
+     */
+    private static final Object ABSENT = new Object();
+
+    /**
+     * One step of the compiled paths, with the steps that may follow it.
+     */
+    private static final class Node {
+        /**
+         * Whether a path ends here, so the value is parsed in full.
+         */
+        boolean terminal;
+
+        Map<String, Node> members;
+        Node anyMember;
+        Map<Integer, Node> elements;
+        Node anyElement;
+
+        /**
+         * This node merged with the wildcard of its parent, built on first
+         * use.
+         */
+        volatile Node merged;
+
+        Node member(String key) {
+            Node node = this.members == null ? null : this.members.get(key);
+            return merge(node, this.anyMember);
+        }
+
+        Node element(int index) {
+            Node node = this.elements == null ? null : this.elements
+                    .get(Integer.valueOf(index));
+            return merge(node, this.anyElement);
+        }
+
+        private static Node merge(Node node, Node any) {
+            if (node == null) {
+                return any;
+            }
+            if (any == null) {
+                return node;
+            }
+            Node merged = node.merged;
+            if (merged == null) {
+                merged = new Node();
+                merged.add(node);
+                merged.add(any);
+                node.merged = merged;
+            }
+            return merged;
+        }
+
+        /**
+         * Add every path of another node to this one.
+         */
+        private void add(Node other) {
+            this.terminal |= other.terminal;
+            if (other.members != null) {
+                for (Map.Entry<String, Node> e : other.members.entrySet()) {
+                    this.addMember(e.getKey()).add(e.getValue());
+                }
+            }
+            if (other.anyMember != null) {
+                this.addAnyMember().add(other.anyMember);
+            }
+            if (other.elements != null) {
+                for (Map.Entry<Integer, Node> e : other.elements.entrySet()) {
+                    this.addElement(e.getKey()).add(e.getValue());
+                }
+            }
+            if (other.anyElement != null) {
+                this.addAnyElement().add(other.anyElement);
+            }
+        }
+
+        Node addMember(String key) {
+            if (this.members == null) {
+                this.members = new HashMap<String, Node>();
+            }
+            Node node = this.members.get(key);
+            if (node == null) {
+                node = new Node();
+                this.members.put(key, node);
+            }
+            return node;
+        }
+
+        Node addAnyMember() {
+            if (this.anyMember == null) {
+                this.anyMember = new Node();
+            }
+            return this.anyMember;
+        }
+
+        Node addElement(Integer index) {
+            if (this.elements == null) {
+                this.elements = new HashMap<Integer, Node>();
+            }
+            Node node = this.elements.get(index);
+            if (node == null) {
+                node = new Node();
+                this.elements.put(index, node);
+            }
+            return node;
+        }
+
+        Node addAnyElement() {
+            if (this.anyElement == null) {
+                this.anyElement = new Node();
+            }
+            return this.anyElement;
+        }
+    }
+
+    private final Node root = new Node();
+
+    /**
+     * Construct a JSONProjection from a set of paths.
+     *
+     * @param paths
+     *            Paths such as <code>data.items[*].id</code>.
+     * @throws JSONException
+     *             If a path is empty or not well formed.
+     */
+    public JSONProjection(String... paths) throws JSONException {
+        for (int i = 0; i < paths.length; i += 1) {
+            this.compile(paths[i]);
+        }
+    }
+
+    private void compile(String path) throws JSONException {
+        Node node = this.root;
+        int length = path.length();
+        int i = 0;
+        if (length == 0) {
+            throw new JSONException("Empty path");
+        }
+        while (i < length) {
+            char c = path.charAt(i);
+            if (c == '[') {
+                int close = path.indexOf(']', i + 1);
+                if (close < 0) {
+                    throw new JSONException("Unclosed '[' in path " + path);
+                }
+                String index = path.substring(i + 1, close).trim();
+                if (index.equals("*")) {
+                    node = node.addAnyElement();
+                } else {
+                    try {
+                        node = node.addElement(Integer.valueOf(index));
+                    } catch (NumberFormatException e) {
+                        throw new JSONException("Bad index [" + index
+                                + "] in path " + path);
+                    }
+                }
+                i = close + 1;
+                continue;
+            }
+            if (c == '.') {
+                if (i == 0 || i + 1 == length) {
+                    throw new JSONException("Empty name in path " + path);
+                }
+                i += 1;
+            }
+            int start = i;
+            while (i < length && path.charAt(i) != '.'
+                    && path.charAt(i) != '[') {
+                i += 1;
+            }
+            if (start == i) {
+                throw new JSONException("Empty name in path " + path);
+            }
+            String name = path.substring(start, i);
+            node = name.equals("*") ? node.addAnyMember() : node.addMember(name);
+        }
+        node.terminal = true;
+    }
+
+    /**
+     * Parse the next value of a tokener, keeping only the selected parts.
+     *
+     * @param x
+     *            A JSONTokener.
+     * @return A JSONObject or JSONArray holding the selected values, or null
+     *         if the value is neither an object nor an array.
+     * @throws JSONException
+     *             If there is a syntax error.
+     */
+    public Object parse(JSONTokener x) throws JSONException {
+        Object value = this.value(x, this.root);
+        return value == ABSENT ? null : value;
+    }
+
+    /**
+     * Parse an object from a tokener, keeping only the selected parts.
+     *
+     * @param x
+     *            A JSONTokener whose next value is an object.
+     * @return A JSONObject holding the selected values.
+     * @throws JSONException
+     *             If there is a syntax error or the value is not an object.
+     */
+    public JSONObject parseObject(JSONTokener x) throws JSONException {
+        if (x.nextClean() != '{') {
+            throw x.syntaxError("A JSONObject text must begin with '{'");
+        }
+        if (this.root.terminal) {
+            x.back();
+            return new JSONObject(x);
+        }
+        return this.object(x, this.root);
+    }
+
+    /**
+     * Parse an array from a tokener, keeping only the selected parts.
+     *
+     * @param x
+     *            A JSONTokener whose next value is an array.
+     * @return A JSONArray holding the selected values.
+     * @throws JSONException
+     *             If there is a syntax error or the value is not an array.
+     */
+    public JSONArray parseArray(JSONTokener x) throws JSONException {
+        if (x.nextClean() != '[') {
+            throw x.syntaxError("A JSONArray text must start with '['");
+        }
+        if (this.root.terminal) {
+            x.back();
+            return new JSONArray(x);
+        }
+        return this.array(x, this.root);
+    }
+
+    private Object value(JSONTokener x, Node node) throws JSONException {
+        if (node.terminal) {
+            return x.nextValue();
+        }
+        switch (x.nextClean()) {
+        case '{':
+            return this.object(x, node);
+        case '[':
+            return this.array(x, node);
+        default:
+            x.back();
+            x.skipValue();
+            return ABSENT;
+        }
+    }
+
+    /**
+     * Parse the rest of an object whose '{' has been read.
+     */
+    private JSONObject object(JSONTokener x, Node node) throws JSONException {
+        JSONObject jo = new JSONObject();
+        for (;;) {
+            char c = x.nextClean();
+            switch (c) {
+            case 0:
+                throw x.syntaxError("A JSONObject text must end with '}'");
+            case '}':
+                return jo;
+            default:
+                x.back();
+            }
+            String key = x.nextKey();
+            if (x.nextClean() != ':') {
+                throw x.syntaxError("Expected a ':' after a key");
+            }
+            Node child = node.member(key);
+            if (child == null) {
+                x.skipValue();
+            } else {
+                Object value = this.value(x, child);
+                if (value != ABSENT) {
+                    jo.putOnce(key, value);
+                }
+            }
+            switch (x.nextClean()) {
+            case ';':
+            case ',':
+                if (x.nextClean() == '}') {
+                    return jo;
+                }
+                x.back();
+                break;
+            case '}':
+                return jo;
+            default:
+                throw x.syntaxError("Expected a ',' or '}'");
+            }
+        }
+    }
+
+    /**
+     * Parse the rest of an array whose '[' has been read.
+     */
+    private JSONArray array(JSONTokener x, Node node) throws JSONException {
+        JSONArray ja = new JSONArray();
+        if (x.nextClean() == ']') {
+            return ja;
+        }
+        x.back();
+        for (int index = 0;; index += 1) {
+            Node child = node.element(index);
+            if (x.nextClean() == ',') {
+                x.back();
+                if (child != null && child.terminal) {
+                    ja.put(JSONObject.NULL);
+                }
+            } else {
+                x.back();
+                if (child == null) {
+                    x.skipValue();
+                } else {
+                    Object value = this.value(x, child);
+                    if (value != ABSENT) {
+                        ja.put(value);
+                    }
+                }
+            }
+            switch (x.nextClean()) {
+            case ',':
+                if (x.nextClean() == ']') {
+                    return ja;
+                }
+                x.back();
+                break;
+            case ']':
+                return ja;
+            default:
+                throw x.syntaxError("Expected a ',' or ']'");
+            }
+        }
+    }
+}
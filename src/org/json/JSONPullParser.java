@@ -0,0 +1,314 @@
+package org.json;
+
+/**
+ * JSONPullParser reads a JSON text from a JSONTokener one event at a time,
+ * without building JSONObjects or JSONArrays. Memory use depends only on the
+ * nesting depth and the largest single value, not on the size of the
+ * document, so it can read exports and responses that do not fit in the
+ * heap:
+ * <pre>
+ * JSONPullParser parser = new JSONPullParser(new JSONTokener(reader));
+ * int event;
+ * while ((event = parser.next()) != JSONPullParser.END_DOCUMENT) {
+ *     if (event == JSONPullParser.KEY &amp;&amp; parser.getKey().equals("id")) {
+ *         parser.next();
+ *         ids.add(parser.getValue());
+ *     }
+ * }
+ * </pre>
+ * It accepts the same forgiving syntax as JSONObject and JSONArray: single
+ * quoted and unquoted strings, <code>;</code> between pairs, extra commas
+ * and elided array elements, which are reported as JSONObject.NULL. Keys
+ * are not checked for duplicates, and the nesting may be no deeper than the
+ * tokener's {@link JSONTokener#getMaxDepth() maximum depth}.
+ *
+ * @version 2026-10-18
+ */
+public class JSONPullParser {
+
+    /**
+     * The <code>{</code> of an object.
+     */
+    public static final int START_OBJECT = 1;
+
+    /**
+     * The <code>}</code> of an object.
+     */
+    public static final int END_OBJECT = 2;
+
+    /**
+     * The <code>[</code> of an array.
+     */
+    public static final int START_ARRAY = 3;
+
+    /**
+     * The <code>]</code> of an array.
+     */
+    public static final int END_ARRAY = 4;
+
+    /**
+     * The key of an object member, see {@link #getKey()}.
+     */
+    public static final int KEY = 5;
+
+    /**
+     * A Boolean, Number, String, or JSONObject.NULL, see {@link #getValue()}.
+     */
+    public static final int VALUE = 6;
+
+    /**
+     * The end of the top level value. It is returned by every later call.
+     */
+    public static final int END_DOCUMENT = 7;
+
+    /**
+     * What the next call to next() reads.
+     */
+    private static final int STATE_DOCUMENT = 0;
+    private static final int STATE_OBJECT_KEY = 1;
+    private static final int STATE_OBJECT_VALUE = 2;
+    private static final int STATE_ARRAY_VALUE = 3;
+    private static final int STATE_AFTER_VALUE = 4;
+    private static final int STATE_END = 5;
+
+    private final JSONTokener x;
+
+    /**
+     * The open containers, '{' or '[', innermost last.
+     */
+    private char[] stack = new char[16];
+    private int depth;
+
+    private int state = STATE_DOCUMENT;
+    private int event;
+    private String key;
+    private Object value;
+
+    /**
+     * Construct a JSONPullParser.
+     *
+     * @param x
+     *            A JSONTokener positioned before a JSON value.
+     */
+    public JSONPullParser(JSONTokener x) {
+        this.x = x;
+    }
+
+    /**
+     * Read the next event.
+     *
+     * @return One of START_OBJECT, END_OBJECT, START_ARRAY, END_ARRAY, KEY,
+     *         VALUE or END_DOCUMENT.
+     * @throws JSONException
+     *             If there is a syntax error.
+     */
+    public int next() throws JSONException {
+        JSONTokener x = this.x;
+        this.value = null;
+        for (;;) {
+            char c;
+            switch (this.state) {
+            case STATE_DOCUMENT:
+            case STATE_OBJECT_VALUE:
+                return this.event = this.value(x.nextClean());
+            case STATE_OBJECT_KEY:
+                c = x.nextClean();
+                switch (c) {
+                case 0:
+                    throw x.syntaxError("A JSONObject text must end with '}'");
+                case '}':
+                    return this.event = this.end(END_OBJECT);
+                default:
+                    x.back();
+                }
+                this.key = x.nextKey();
+                if (x.nextClean() != ':') {
+                    throw x.syntaxError("Expected a ':' after a key");
+                }
+                this.state = STATE_OBJECT_VALUE;
+                return this.event = KEY;
+            case STATE_ARRAY_VALUE:
+                c = x.nextClean();
+                switch (c) {
+                case ']':
+                    return this.event = this.end(END_ARRAY);
+                case ',':
+                    x.back();
+                    this.value = JSONObject.NULL;
+                    this.state = STATE_AFTER_VALUE;
+                    return this.event = VALUE;
+                default:
+                    return this.event = this.value(c);
+                }
+            case STATE_AFTER_VALUE:
+                if (this.depth == 0) {
+                    this.state = STATE_END;
+                    break;
+                }
+                c = x.nextClean();
+                if (this.stack[this.depth - 1] == '{') {
+                    switch (c) {
+                    case ';':
+                    case ',':
+                        this.state = STATE_OBJECT_KEY;
+                        break;
+                    case '}':
+                        return this.event = this.end(END_OBJECT);
+                    default:
+                        throw x.syntaxError("Expected a ',' or '}'");
+                    }
+                } else {
+                    switch (c) {
+                    case ',':
+                        this.state = STATE_ARRAY_VALUE;
+                        break;
+                    case ']':
+                        return this.event = this.end(END_ARRAY);
+                    default:
+                        throw x.syntaxError("Expected a ',' or ']'");
+                    }
+                }
+                break;
+            default:
+                return this.event = END_DOCUMENT;
+            }
+        }
+    }
+
+    /**
+     * Read a value whose first character is c.
+     */
+    private int value(char c) throws JSONException {
+        switch (c) {
+        case '{':
+            this.push(c);
+            this.state = STATE_OBJECT_KEY;
+            return START_OBJECT;
+        case '[':
+            this.push(c);
+            this.state = STATE_ARRAY_VALUE;
+            return START_ARRAY;
+        default:
+            this.x.back();
+            this.value = this.x.nextValue();
+            this.state = STATE_AFTER_VALUE;
+            return VALUE;
+        }
+    }
+
+    private void push(char c) throws JSONException {
+        if (this.depth == this.x.getMaxDepth()) {
+            throw this.x.syntaxError("Nesting too deep");
+        }
+        if (this.depth == this.stack.length) {
+            char[] stack = new char[this.depth * 2];
+            System.arraycopy(this.stack, 0, stack, 0, this.depth);
+            this.stack = stack;
+        }
+        this.stack[this.depth] = c;
+        this.depth += 1;
+    }
+
+    private int end(int event) {
+        this.depth -= 1;
+        this.state = STATE_AFTER_VALUE;
+        return event;
+    }
+
+    /**
+     * Skip the rest of the object or array that the last event started,
+     * without building any of it. The current event becomes its END_OBJECT
+     * or END_ARRAY. Only the brackets and quotes of the skipped text are
+     * checked.
+     *
+     * @throws JSONException
+     *             If the last event was not START_OBJECT or START_ARRAY, or
+     *             the object or array is not closed.
+     */
+    public void skipChildren() throws JSONException {
+        if (this.event != START_OBJECT && this.event != START_ARRAY) {
+            throw new JSONException("skipChildren() must follow START_OBJECT or START_ARRAY");
+        }
+        this.x.skipContainer(this.stack[this.depth - 1]);
+        this.event = this.end(this.event == START_OBJECT ? END_OBJECT
+                : END_ARRAY);
+    }
+
+    /**
+     * Read the whole document and pass each event to a handler.
+     *
+     * @param handler
+     *            A JSONContentHandler.
+     * @throws JSONException
+     *             If there is a syntax error, or the handler throws it.
+     */
+    public void parse(JSONContentHandler handler) throws JSONException {
+        for (;;) {
+            switch (this.next()) {
+            case START_OBJECT:
+                handler.startObject();
+                break;
+            case END_OBJECT:
+                handler.endObject();
+                break;
+            case START_ARRAY:
+                handler.startArray();
+                break;
+            case END_ARRAY:
+                handler.endArray();
+                break;
+            case KEY:
+                handler.key(this.key);
+                break;
+            case VALUE:
+                handler.value(this.value);
+                break;
+            default:
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return The last event returned by next(), or 0 before the first.
+     */
+    public int getEvent() {
+        return this.event;
+    }
+
+    /**
+     * @return The number of objects and arrays that are open. It includes
+     *         the one just started by START_OBJECT or START_ARRAY, and not
+     *         the one just ended by END_OBJECT or END_ARRAY.
+     */
+    public int getDepth() {
+        return this.depth;
+    }
+
+    /**
+     * @return The key of the last KEY event. It stays set for the value that
+     *         follows, and until the next key of an object.
+     */
+    public String getKey() {
+        return this.key;
+    }
+
+    /**
+     * @return The value of the last VALUE event: a Boolean, Number, String,
+     *         or JSONObject.NULL; null if the last event was not VALUE.
+     */
+    public Object getValue() {
+        return this.value;
+    }
+
+    /**
+     * Make a JSONException reporting the current position of the tokener.
+     *
+     * @param message
+     *            The error message.
+     * @return A JSONException object, suitable for throwing
+     */
+    public JSONException syntaxError(String message) {
+        return this.x.syntaxError(message);
+    }
+}
@@ -0,0 +1,240 @@
+package org.json;
+
+/**
+ * Static helpers that find the extent of JSON values in a character array
+ * without building them. They accept the same forgiving syntax as
+ * JSONTokener: single quoted strings, unquoted text, and <code>;</code>
+ * between pairs. Only the structure is checked; the content of a value is
+ * checked when it is built.
+ *
+ * @version 2026-10-18
+ */
+final class JSONScanner {
+
+    /**
+     * The characters that end an unquoted value, indexed by character.
+     */
+    private static final boolean[] DELIMITERS = new boolean[128];
+
+    /*
+     * Where skipValue is in an object or array: where a key or value may
+     * begin, in unquoted text, or after a key or value.
+     */
+    static final int VALUE = 0;
+    static final int TEXT = 1;
+    static final int AFTER = 2;
+
+    static {
+        String delimiters = ",:]}/\\\"[{;=#";
+        for (int i = 0; i < delimiters.length(); i += 1) {
+            DELIMITERS[delimiters.charAt(i)] = true;
+        }
+    }
+
+    private JSONScanner() {
+    }
+
+    /**
+     * @return The index of the first character at or after p that is not
+     *         whitespace, or end.
+     */
+    static int skipWhitespace(char[] chars, int p, int end) {
+        while (p < end && chars[p] <= ' ' && chars[p] != 0) {
+            p += 1;
+        }
+        return p;
+    }
+
+    /**
+     * @return Whether the character ends unquoted text.
+     */
+    static boolean isDelimiter(char c) {
+        return c < ' ' || (c < 128 && DELIMITERS[c]);
+    }
+
+    /**
+     * Skip a quoted string.
+     *
+     * @param p
+     *            The index of the opening quote.
+     * @return The index after the closing quote.
+     * @throws JSONException
+     *             If the string is not terminated on the same line.
+     */
+    static int skipString(char[] chars, int p, int end) throws JSONException {
+        char quote = chars[p];
+        p += 1;
+        while (p < end) {
+            char c = chars[p];
+            if (c == quote) {
+                return p + 1;
+            }
+            if (c == '\\') {
+                p += 2;
+                continue;
+            }
+            if (c == '\n' || c == '\r' || c == 0) {
+                break;
+            }
+            p += 1;
+        }
+        throw syntaxError(chars, Math.min(p + 1, end), end, "Unterminated string");
+    }
+
+    /**
+     * Skip unquoted text.
+     *
+     * @param p
+     *            The index of the first character.
+     * @return The index after the last character that is not trailing
+     *         whitespace.
+     */
+    static int skipText(char[] chars, int p, int end) {
+        int last = p;
+        while (p < end && !isDelimiter(chars[p])) {
+            if (chars[p] > ' ') {
+                last = p + 1;
+            }
+            p += 1;
+        }
+        return last;
+    }
+
+    /**
+     * Skip a value: a string, an object or array with everything in it, or
+     * unquoted text. As in JSONTokener, a quote only begins a string where a
+     * key or value begins; in unquoted text a single quote is part of the
+     * text, and a quote right after a key or value is an error.
+     *
+     * @param p
+     *            The index of the first character of the value.
+     * @return The index after the value.
+     * @throws JSONException
+     *             If a string or a bracket is not closed, or a quote follows
+     *             a key or value.
+     */
+    static int skipValue(char[] chars, int p, int end) throws JSONException {
+        if (p >= end) {
+            return p;
+        }
+        char c = chars[p];
+        if (c == '"' || c == '\'') {
+            return skipString(chars, p, end);
+        }
+        if (c != '{' && c != '[') {
+            return skipText(chars, p, end);
+        }
+        int start = p;
+        int depth = 0;
+        int state = VALUE;
+        while (p < end) {
+            c = chars[p];
+            if (state == TEXT && c >= ' ' && !isDelimiter(c)) {
+                p += 1;
+                continue;
+            }
+            switch (c) {
+            case '"':
+            case '\'':
+                if (state != VALUE) {
+                    throw syntaxError(chars, p + 1, end, chars[start] == '{'
+                            ? "Expected a ',' or '}'"
+                            : "Expected a ',' or ']'");
+                }
+                p = skipString(chars, p, end);
+                state = AFTER;
+                continue;
+            case '{':
+            case '[':
+                depth += 1;
+                state = VALUE;
+                break;
+            case '}':
+            case ']':
+                depth -= 1;
+                if (depth == 0) {
+                    return p + 1;
+                }
+                state = AFTER;
+                break;
+            case ',':
+            case ':':
+            case ';':
+                state = VALUE;
+                break;
+            case '=':
+                state = VALUE;
+                if (p + 1 < end && chars[p + 1] == '>') {
+                    p += 1;
+                }
+                break;
+            default:
+                state = next(state, c);
+            }
+            p += 1;
+        }
+        throw syntaxError(chars, end, end, chars[start] == '{'
+                ? "A JSONObject text must end with '}'"
+                : "Expected a ',' or ']'");
+    }
+
+    /**
+     * The state after a character that is not a quote, a bracket or a
+     * separator: whitespace leaves it, except that a control character ends
+     * unquoted text, as does any other delimiter, and anything else is
+     * unquoted text.
+     */
+    static int next(int state, char c) {
+        if (c == ' ') {
+            return state;
+        }
+        if (c < ' ') {
+            return state == TEXT ? AFTER : state;
+        }
+        return isDelimiter(c) ? AFTER : TEXT;
+    }
+
+    /**
+     * Build the value found by skipValue. Objects and arrays become lazy
+     * views, everything else becomes what JSONTokener.nextValue() returns.
+     *
+     * @param start
+     *            The index of the first character of the value.
+     * @param end
+     *            The index after the value. If it equals start, the value is
+     *            an elided array element and becomes JSONObject.NULL.
+     * @return A JSONLazyObject, JSONLazyArray, String, Number, Boolean or
+     *         JSONObject.NULL.
+     * @throws JSONException
+     *             If the value is not valid.
+     */
+    static Object value(char[] chars, int start, int end) throws JSONException {
+        if (start == end) {
+            return JSONObject.NULL;
+        }
+        char c = chars[start];
+        if (c == '{') {
+            return new JSONLazyObject(chars, start, end - start);
+        }
+        if (c == '[') {
+            return new JSONLazyArray(chars, start, end - start);
+        }
+        if (c == '"' || c == '\'') {
+            for (int p = start + 1; p < end - 1; p += 1) {
+                if (chars[p] == '\\') {
+                    return new JSONTokener(chars, start + 1, end).nextString(c);
+                }
+            }
+            return new String(chars, start + 1, end - start - 2);
+        }
+        return JSONObject.stringToValue(chars, start, end - start);
+    }
+
+    /**
+     * Make a JSONException that reports the position p in the document.
+     */
+    static JSONException syntaxError(char[] chars, int p, int end,
+            String message) {
+        return new JSONTokener(chars, p, end).syntaxError(message);
+    }
+}
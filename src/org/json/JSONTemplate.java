@@ -0,0 +1,346 @@
+package org.json;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+/**
+ * JSONTemplate serializes objects of one shape to UTF-8 JSON text faster
+ * than {@link JSONByteWriter#value(Object)}, by escaping and encoding the keys
+ * of the shape once, when the template is made. Each later serialization
+ * copies the encoded <code>"key":</code> bytes and only converts the values.
+ * <pre>
+ * JSONTemplate template = JSONTemplate.of(Order.class);
+ * Request.Post(url).bodyByteArray(template.toBytes(order));
+ * </pre>
+ * A template made from a JSONObject describes its keys, in order, and the
+ * templates of the objects and arrays of objects in it. A JSONObject written
+ * with it may differ from the template: a key that is not at the same
+ * position as in the template is simply escaped as usual. A template made
+ * from a bean class writes a bean of that class exactly like
+ * <code>new JSONObject(bean)</code> would be written, without building the
+ * JSONObject; beans found in its values use the templates of their own
+ * classes.
+ * <p>
+ * The output is byte for byte the same as JSONByteWriter's. A JSONTemplate is
+ * immutable and may be shared by any number of threads.
+ * <p>
+ * Warning: This class assumes that the data structure is acyclical.
+ *
+ * @version 2026-10-18
+ */
+public class JSONTemplate {
+
+    /**
+     * The template of each bean class, made on first use. Like JSONObject's
+     * cache of getters, looking one up takes no lock, and a template keeps
+     * its class reachable until memory runs low enough for the garbage
+     * collector to clear it.
+     */
+    private static final ClassCache<JSONTemplate> BEANS = new ClassCache<JSONTemplate>();
+
+    /**
+     * The keys of an object template, or the JSON keys of a bean template.
+     */
+    private final String[] keys;
+
+    /**
+     * The UTF-8 bytes of each key, quoted and followed by a colon.
+     */
+    private final byte[][] names;
+
+    /**
+     * The template of the value of each key of an object template. An element
+     * is null if the value has no template.
+     */
+    private final JSONTemplate[] children;
+
+    /**
+     * The template of the elements of an array template, or null.
+     */
+    private final JSONTemplate element;
+
+    /**
+     * The class of a bean template, or null.
+     */
+    private final Class<?> beanClass;
+
+    /**
+     * The getters of a bean template, or null if the bean has two getters
+     * for the same key and is written through a JSONObject.
+     */
+    private final Method[] getters;
+
+    private JSONTemplate(String[] keys, JSONTemplate[] children,
+            JSONTemplate element, Class<?> beanClass, Method[] getters) {
+        this.keys = keys;
+        this.children = children;
+        this.element = element;
+        this.beanClass = beanClass;
+        this.getters = getters;
+        if (keys == null) {
+            this.names = null;
+        } else {
+            this.names = new byte[keys.length][];
+            for (int i = 0; i < keys.length; i += 1) {
+                byte[] quoted = new JSONByteWriter(keys[i].length() + 2)
+                        .quote(keys[i]).toByteArray();
+                this.names[i] = Arrays.copyOf(quoted, quoted.length + 1);
+                this.names[i][quoted.length] = ':';
+            }
+        }
+    }
+
+    /**
+     * Make a template with the shape of a JSONObject.
+     *
+     * @param template
+     *            A JSONObject whose keys, and whose nested objects and arrays
+     *            of objects, are those of the values to be written.
+     * @return A JSONTemplate.
+     */
+    public static JSONTemplate of(JSONObject template) {
+        String[] keys = new String[template.length()];
+        JSONTemplate[] children = new JSONTemplate[keys.length];
+        Iterator<Entry<String, Object>> entries = template.entrySet()
+                .iterator();
+        for (int i = 0; entries.hasNext(); i += 1) {
+            Entry<String, Object> entry = entries.next();
+            keys[i] = entry.getKey();
+            children[i] = compile(entry.getValue());
+        }
+        return new JSONTemplate(keys, children, null, null, null);
+    }
+
+    /**
+     * Make the template of a value: of its keys for an object, of its first
+     * element for an array, or null for anything else.
+     */
+    private static JSONTemplate compile(Object value) {
+        if (value instanceof JSONObject) {
+            return of((JSONObject) value);
+        }
+        if (value instanceof JSONArray) {
+            JSONArray ja = (JSONArray) value;
+            JSONTemplate element = ja.length() == 0 ? null : compile(ja.opt(0));
+            return element == null ? null : new JSONTemplate(null, null,
+                    element, null, null);
+        }
+        return null;
+    }
+
+    /**
+     * Get the template of a bean class, making it on first use.
+     *
+     * @param beanClass
+     *            A class whose public getters are the keys, as in
+     *            {@link JSONObject#JSONObject(Object)}.
+     * @return A JSONTemplate.
+     */
+    public static JSONTemplate of(Class<?> beanClass) {
+        JSONTemplate template = BEANS.get(beanClass);
+        if (template == null) {
+            JSONObject.Getter[] getters = JSONObject.getters(beanClass);
+            String[] keys = new String[getters.length];
+            Method[] methods = new Method[getters.length];
+            Set<String> unique = new HashSet<String>();
+            for (int i = 0; i < getters.length; i += 1) {
+                keys[i] = getters[i].key;
+                methods[i] = getters[i].method;
+                unique.add(keys[i]);
+            }
+            template = new JSONTemplate(keys, null, null, beanClass,
+                    unique.size() == keys.length ? methods : null);
+            BEANS.put(beanClass, template);
+        }
+        return template;
+    }
+
+    /**
+     * Write a value with this template.
+     *
+     * @param writer
+     *            The JSONByteWriter that receives the text.
+     * @param value
+     *            The value to write. A value that does not fit the template,
+     *            such as a JSONArray for an object template, is written as
+     *            JSONByteWriter would write it; for a bean template, as
+     *            JSONByteWriter would write JSONObject.wrap(value).
+     * @return The writer.
+     * @throws JSONException
+     *             If the value is or contains an invalid number, or if the
+     *             writer's OutputStream fails.
+     */
+    public JSONByteWriter write(JSONByteWriter writer, Object value)
+            throws JSONException {
+        try {
+            this.writeValue(writer, value);
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+        return writer;
+    }
+
+    /**
+     * Serialize a value with this template.
+     *
+     * @param value
+     *            The value to serialize.
+     * @return The UTF-8 bytes.
+     * @throws JSONException
+     *             If the value is or contains an invalid number.
+     */
+    public byte[] toBytes(Object value) throws JSONException {
+        return this.write(new JSONByteWriter(), value).toByteArray();
+    }
+
+    private void writeValue(JSONByteWriter w, Object value) throws IOException {
+        if (this.beanClass != null) {
+            if (value != null && value.getClass() == this.beanClass) {
+                this.writeBean(w, value);
+            } else {
+                writeWrapped(w, value);
+            }
+        } else if (this.element != null) {
+            if (value instanceof JSONArray
+                    && ((JSONArray) value).denseLongs() == null
+                    && ((JSONArray) value).denseDoubles() == null) {
+                this.writeArray(w, (JSONArray) value);
+            } else {
+                w.writeValue(value);
+            }
+        } else if (value instanceof JSONObject) {
+            this.writeObject(w, (JSONObject) value);
+        } else {
+            w.writeValue(value);
+        }
+    }
+
+    private void writeObject(JSONByteWriter w, JSONObject jo)
+            throws IOException {
+        String[] keys = this.keys;
+        w.writeByte('{');
+        Iterator<Entry<String, Object>> entries = jo.entrySet().iterator();
+        for (int i = 0; entries.hasNext(); i += 1) {
+            Entry<String, Object> entry = entries.next();
+            if (i > 0) {
+                w.writeByte(',');
+            }
+            String key = entry.getKey();
+            if (i < keys.length && (key == keys[i] || key.equals(keys[i]))) {
+                w.writeBytes(this.names[i]);
+                if (this.children[i] != null) {
+                    this.children[i].writeValue(w, entry.getValue());
+                    continue;
+                }
+            } else {
+                w.writeString(key);
+                w.writeByte(':');
+            }
+            w.writeValue(entry.getValue());
+        }
+        w.writeByte('}');
+    }
+
+    private void writeArray(JSONByteWriter w, JSONArray ja) throws IOException {
+        w.writeByte('[');
+        int length = ja.length();
+        for (int i = 0; i < length; i += 1) {
+            if (i > 0) {
+                w.writeByte(',');
+            }
+            this.element.writeValue(w, ja.opt(i));
+        }
+        w.writeByte(']');
+    }
+
+    /**
+     * Write a bean of beanClass the way JSONObject(Object) converts it.
+     */
+    private void writeBean(JSONByteWriter w, Object bean) throws IOException {
+        Method[] getters = this.getters;
+        if (getters == null) {
+            w.writeValue(new JSONObject(bean));
+            return;
+        }
+        w.writeByte('{');
+        boolean commanate = false;
+        for (int i = 0; i < getters.length; i += 1) {
+            Object result;
+            try {
+                result = getters[i].invoke(bean, (Object[]) null);
+            } catch (Exception ignore) {
+                continue;
+            }
+            if (result != null) {
+                if (commanate) {
+                    w.writeByte(',');
+                }
+                w.writeBytes(this.names[i]);
+                writeWrapped(w, result);
+                commanate = true;
+            }
+        }
+        w.writeByte('}');
+    }
+
+    /**
+     * Write a value the way JSONObject.wrap(value) would be written, using
+     * the template of each bean class.
+     */
+    private static void writeWrapped(JSONByteWriter w, Object value)
+            throws IOException {
+        if (value == null) {
+            w.writeValue(JSONObject.NULL);
+        } else if (value instanceof JSONObject || value instanceof JSONArray
+                || value instanceof String || value instanceof Number
+                || value instanceof Boolean || value instanceof JSONString
+                || value instanceof Character || value.equals(null)) {
+            w.writeValue(JSONObject.wrap(value));
+        } else if (value instanceof Collection) {
+            w.writeByte('[');
+            boolean commanate = false;
+            for (Object o : (Collection<?>) value) {
+                if (commanate) {
+                    w.writeByte(',');
+                }
+                writeWrapped(w, o);
+                commanate = true;
+            }
+            w.writeByte(']');
+        } else if (value.getClass().isArray()) {
+            w.writeByte('[');
+            int length = Array.getLength(value);
+            for (int i = 0; i < length; i += 1) {
+                if (i > 0) {
+                    w.writeByte(',');
+                }
+                writeWrapped(w, Array.get(value, i));
+            }
+            w.writeByte(']');
+        } else if (value instanceof Map || isSystemClass(value.getClass())) {
+            w.writeValue(JSONObject.wrap(value));
+        } else {
+            of(value.getClass()).writeBean(w, value);
+        }
+    }
+
+    /**
+     * @return Whether JSONObject.wrap writes instances of klass as strings.
+     */
+    private static boolean isSystemClass(Class<?> klass) {
+        Package objectPackage = klass.getPackage();
+        String objectPackageName = objectPackage != null ? objectPackage
+                .getName() : "";
+        return objectPackageName.startsWith("java.")
+                || objectPackageName.startsWith("javax.")
+                || klass.getClassLoader() == null;
+    }
+}
@@ -1,11 +1,10 @@
 package org.json;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
-import java.io.StringReader;
+import java.util.Arrays;
 
 /*
 Copyright (c) 2002 JSON.org
@@ -35,18 +34,50 @@ SOFTWARE.
  * A JSONTokener takes a source string and extracts characters and tokens from
  * it. It is used by the JSONObject and JSONArray constructors to parse
  * JSON source strings.
+ * <p>
+ * Characters are read in bulk into a window buffer, and strings, whitespace
+ * and unquoted values are scanned directly in that buffer rather than one
+ * <code>Reader.read()</code> call at a time. The line and character position
+ * reported by {@link #toString()} is only computed when it is asked for.
  * @author JSON.org
  * @version 2014-05-03
  */
 public class JSONTokener {
 
-    private long    character;
+    /**
+     * Size of the window used when reading from a Reader. The window grows
+     * when a single token (or a {@link #skipTo(char)}) does not fit in it.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * The most characters that {@link #skipTo(char)} keeps in the window to
+     * be able to go back to where it started, like the mark it used to set
+     * on the Reader.
+     */
+    private static final int SKIP_LIMIT = 1000000;
+
+    /**
+     * The default for {@link #setMaxDepth(int)}.
+     */
+    public static final int DEFAULT_MAX_DEPTH = 1000;
+
+    private char[]  buffer;
+    private int     position;
+    private int     limit;
+    private long    offset;
+    private Reader  reader;
+    private boolean exhausted;
     private boolean eof;
-    private long    index;
+    private boolean pastEnd;
+    private boolean usePrevious;
+    private JSONKeyPool keyPool;
+    private int     maxDepth = DEFAULT_MAX_DEPTH;
+
+    /* Position of buffer[0] in the source, in the same terms as toString(). */
+    private long    character;
     private long    line;
     private char    previous;
-    private Reader  reader;
-    private boolean usePrevious;
 
 
     /**
@@ -55,15 +86,10 @@ public class JSONTokener {
      * @param reader     A reader.
      */
     public JSONTokener(Reader reader) {
-        this.reader = reader.markSupported()
-            ? reader
-            : new BufferedReader(reader);
-        this.eof = false;
-        this.usePrevious = false;
-        this.previous = 0;
-        this.index = 0;
-        this.character = 1;
-        this.line = 1;
+        this.reader = reader;
+        this.buffer = new char[BUFFER_SIZE];
+        this.exhausted = false;
+        this.init();
     }
 
 
@@ -82,7 +108,39 @@ public class JSONTokener {
      * @param s     A source string.
      */
     public JSONTokener(String s) {
-        this(new StringReader(s));
+        this.buffer = s.toCharArray();
+        this.limit = this.buffer.length;
+        this.exhausted = true;
+        this.init();
+    }
+
+
+    /**
+     * Construct a JSONTokener over a range of a character array, without
+     * copying it. Positions in syntax errors are counted from the start of
+     * the array, so that they point into the whole document.
+     *
+     * @param chars The characters.
+     * @param start The index of the first character to read.
+     * @param end   The index after the last character to read.
+     */
+    JSONTokener(char[] chars, int start, int end) {
+        this.buffer = chars;
+        this.position = start;
+        this.limit = end;
+        this.exhausted = true;
+        this.init();
+    }
+
+
+    private void init() {
+        this.eof = false;
+        this.pastEnd = false;
+        this.usePrevious = false;
+        this.previous = 0;
+        this.offset = 0;
+        this.character = 1;
+        this.line = 1;
     }
 
 
@@ -92,16 +150,139 @@ public class JSONTokener {
      * the next number or identifier.
      */
     public void back() throws JSONException {
-        if (this.usePrevious || this.index <= 0) {
+        if (this.usePrevious || (this.position == 0 && !this.pastEnd)) {
             throw new JSONException("Stepping back two steps is not supported");
         }
-        this.index -= 1;
-        this.character -= 1;
+        if (this.pastEnd) {
+            this.pastEnd = false;
+        } else {
+            this.position -= 1;
+        }
         this.usePrevious = true;
         this.eof = false;
     }
 
 
+    /**
+     * Use a JSONKeyPool for the keys of the JSONObjects parsed by this
+     * tokener, so that repeated field names share one String.
+     *
+     * @param keyPool The pool, or null to create a new String for every key.
+     */
+    public void setKeyPool(JSONKeyPool keyPool) {
+        this.keyPool = keyPool;
+    }
+
+
+    /**
+     * Get the JSONKeyPool used for the keys of parsed JSONObjects.
+     *
+     * @return The pool, or null if keys are not pooled.
+     */
+    public JSONKeyPool getKeyPool() {
+        return this.keyPool;
+    }
+
+
+    /**
+     * Limit how deeply objects and arrays (or, for an XMLTokener, elements)
+     * may be nested in the text. Nested values are parsed with an explicit
+     * stack rather than by recursion, so deep text does not overflow the
+     * thread's stack; this limit bounds the memory it may take instead.
+     *
+     * @param maxDepth The largest number of nested levels, counting the
+     *  outermost one. Deeper text is a syntax error.
+     */
+    public void setMaxDepth(int maxDepth) {
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("maxDepth must be positive: " + maxDepth);
+        }
+        this.maxDepth = maxDepth;
+    }
+
+
+    /**
+     * Get the limit on nesting set by {@link #setMaxDepth(int)}.
+     *
+     * @return The largest number of nested levels.
+     */
+    public int getMaxDepth() {
+        return this.maxDepth;
+    }
+
+
+    /**
+     * Read more characters from the reader into the buffer, keeping the
+     * character before the current position so that back() still works.
+     * @return true if characters were added.
+     */
+    private boolean fill() throws JSONException {
+        return this.fill(this.position > 0 ? this.position - 1 : 0);
+    }
+
+
+    /**
+     * Read more characters from the reader into the buffer. The characters
+     * from <code>keep</code> on may be moved to the front of the buffer, even
+     * when nothing more could be read, so a caller holding an index into the
+     * buffer must rebase it by the change in <code>offset</code>.
+     * @param keep The first buffer index that must survive the refill.
+     * @return true if characters were added.
+     */
+    private boolean fill(int keep) throws JSONException {
+        if (this.exhausted) {
+            return false;
+        }
+        if (keep > 0) {
+            for (int i = 0; i < keep; i += 1) {
+                this.track(this.buffer[i]);
+            }
+            System.arraycopy(this.buffer, keep, this.buffer, 0, this.limit - keep);
+            this.offset += keep;
+            this.position -= keep;
+            this.limit -= keep;
+        }
+        if (this.limit == this.buffer.length) {
+            char[] grown = new char[this.buffer.length * 2];
+            System.arraycopy(this.buffer, 0, grown, 0, this.limit);
+            this.buffer = grown;
+        }
+        int count;
+        try {
+            do {
+                count = this.reader.read(this.buffer, this.limit,
+                        this.buffer.length - this.limit);
+            } while (count == 0);
+        } catch (IOException exception) {
+            throw new JSONException(exception);
+        }
+        if (count < 0) {
+            this.exhausted = true;
+            return false;
+        }
+        this.limit += count;
+        return true;
+    }
+
+
+    /**
+     * Advance the line and character counters of buffer[0] over one
+     * character.
+     */
+    private void track(char c) {
+        if (this.previous == '\r') {
+            this.line += 1;
+            this.character = c == '\n' ? 0 : 1;
+        } else if (c == '\n') {
+            this.line += 1;
+            this.character = 0;
+        } else {
+            this.character += 1;
+        }
+        this.previous = c;
+    }
+
+
     /**
      * Get the hex value of a character (base16).
      * @param c A character between '0' and '9' or between 'A' and 'F' or
@@ -126,6 +307,15 @@ public class JSONTokener {
     }
 
 
+    /**
+     * Whether the last character read was the end of the source, rather than
+     * a NUL character in it.
+     */
+    boolean isPastEnd() {
+        return this.pastEnd;
+    }
+
+
     /**
      * Determine if the source string still contains characters that next()
      * can consume.
@@ -147,34 +337,18 @@ public class JSONTokener {
      * @return The next character, or 0 if past the end of the source string.
      */
     public char next() throws JSONException {
-        int c;
-        if (this.usePrevious) {
-            this.usePrevious = false;
-            c = this.previous;
-        } else {
-            try {
-                c = this.reader.read();
-            } catch (IOException exception) {
-                throw new JSONException(exception);
-            }
-
-            if (c <= 0) { // End of stream
-                this.eof = true;
-                c = 0;
-            }
+        this.usePrevious = false;
+        if (this.position == this.limit && !this.fill()) {
+            this.eof = true;
+            this.pastEnd = true;
+            return 0;
         }
-        this.index += 1;
-        if (this.previous == '\r') {
-            this.line += 1;
-            this.character = c == '\n' ? 0 : 1;
-        } else if (c == '\n') {
-            this.line += 1;
-            this.character = 0;
-        } else {
-            this.character += 1;
+        char c = this.buffer[this.position];
+        this.position += 1;
+        if (c == 0) {
+            this.eof = true;
         }
-        this.previous = (char) c;
-        return this.previous;
+        return c;
     }
 
 
@@ -230,6 +404,22 @@ public class JSONTokener {
      */
     public char nextClean() throws JSONException {
         for (;;) {
+            char[] buffer = this.buffer;
+            int limit = this.limit;
+            int p = this.position;
+            while (p < limit) {
+                char c = buffer[p];
+                if (c > ' ') {
+                    this.position = p + 1;
+                    this.usePrevious = false;
+                    return c;
+                }
+                if (c == 0) {
+                    break;
+                }
+                p += 1;
+            }
+            this.position = p;
             char c = this.next();
             if (c == 0 || c > ' ') {
                 return c;
@@ -251,8 +441,37 @@ public class JSONTokener {
      */
     public String nextString(char quote) throws JSONException {
         char c;
-        StringBuilder sb = new StringBuilder();
+        StringBuilder sb = null;
         for (;;) {
+
+            // Copy the run of plain characters straight out of the buffer.
+
+            char[] buffer = this.buffer;
+            int limit = this.limit;
+            int start = this.position;
+            int p = start;
+            while (p < limit) {
+                c = buffer[p];
+                if (c == quote || c == '\\' || c == '\n' || c == '\r' ||
+                        c == 0) {
+                    break;
+                }
+                p += 1;
+            }
+            if (p < limit && buffer[p] == quote) {
+                this.position = p + 1;
+                this.usePrevious = false;
+                if (sb == null) {
+                    return new String(buffer, start, p - start);
+                }
+                return sb.append(buffer, start, p - start).toString();
+            }
+            if (sb == null) {
+                sb = new StringBuilder(Math.max(16, (p - start) + 16));
+            }
+            sb.append(buffer, start, p - start);
+            this.position = p;
+
             c = this.next();
             switch (c) {
             case 0:
@@ -300,6 +519,41 @@ public class JSONTokener {
     }
 
 
+    /**
+     * Get the next key of a JSONObject. Without a key pool this is the same
+     * as <code>nextValue().toString()</code>. With one, a quoted key without
+     * escapes that lies in the buffer is looked up in the pool directly from
+     * the buffer, so no String is created for a key the pool already holds.
+     * @return The key.
+     * @throws JSONException If syntax error.
+     */
+    String nextKey() throws JSONException {
+        JSONKeyPool keyPool = this.keyPool;
+        if (keyPool == null) {
+            return this.nextValue().toString();
+        }
+        char quote = this.nextClean();
+        if (quote != '"' && quote != '\'') {
+            this.back();
+            return keyPool.intern(this.nextValue().toString());
+        }
+        char[] buffer = this.buffer;
+        int limit = this.limit;
+        int start = this.position;
+        for (int p = start; p < limit; p += 1) {
+            char c = buffer[p];
+            if (c == quote) {
+                this.position = p + 1;
+                return keyPool.intern(buffer, start, p - start);
+            }
+            if (c == '\\' || c == '\n' || c == '\r' || c == 0) {
+                break;
+            }
+        }
+        return keyPool.intern(this.nextString(quote));
+    }
+
+
     /**
      * Get the text up but not including the specified character or the
      * end of line, whichever comes first.
@@ -307,8 +561,36 @@ public class JSONTokener {
      * @return   A string.
      */
     public String nextTo(char delimiter) throws JSONException {
-        StringBuilder sb = new StringBuilder();
+        StringBuilder sb = null;
         for (;;) {
+
+            // Scan the run of other characters straight out of the buffer.
+
+            char[] buffer = this.buffer;
+            int limit = this.limit;
+            int start = this.position;
+            int p = start;
+            while (p < limit) {
+                char c = buffer[p];
+                if (c == delimiter || c == 0 || c == '\n' || c == '\r') {
+                    break;
+                }
+                p += 1;
+            }
+            this.position = p;
+            if (p < limit) {
+                if (this.next() != 0) {
+                    this.back();
+                }
+                if (sb == null) {
+                    return new String(buffer, start, p - start).trim();
+                }
+                return sb.append(buffer, start, p - start).toString().trim();
+            }
+            if (sb == null) {
+                sb = new StringBuilder();
+            }
+            sb.append(buffer, start, p - start);
             char c = this.next();
             if (c == delimiter || c == 0 || c == '\n' || c == '\r') {
                 if (c != 0) {
@@ -353,7 +635,6 @@ public class JSONTokener {
      */
     public Object nextValue() throws JSONException {
         char c = this.nextClean();
-        String string;
 
         switch (c) {
             case '"':
@@ -376,18 +657,345 @@ public class JSONTokener {
          * formatting character.
          */
 
-        StringBuilder sb = new StringBuilder();
-        while (c >= ' ' && ",:]}/\\\"[{;=#".indexOf(c) < 0) {
-            sb.append(c);
-            c = this.next();
+        if (JSONScanner.isDelimiter(c)) {
+            this.back();
+            throw this.syntaxError("Missing value");
         }
-        this.back();
+        int start = this.position - 1;
+        for (;;) {
+            char[] buffer = this.buffer;
+            int limit = this.limit;
+            int p = this.position;
+            while (p < limit) {
+                c = buffer[p];
+                if (JSONScanner.isDelimiter(c)) {
+                    break;
+                }
+                p += 1;
+            }
+            this.position = p;
+            if (p < limit) {
+                break;
+            }
+            long base = this.offset;
+            boolean filled = this.fill(start);
+            start -= (int) (this.offset - base);
+            if (!filled) {
+                break;
+            }
+        }
+
+        int end = this.position;
+        while (start < end && this.buffer[start] <= ' ') {
+            start += 1;
+        }
+        while (end > start && this.buffer[end - 1] <= ' ') {
+            end -= 1;
+        }
+        if (start == end) {
+            throw this.syntaxError("Missing value");
+        }
+        return JSONObject.stringToValue(this.buffer, start, end - start);
+    }
+
+
+    /**
+     * Parse the members of a JSONObject or the elements of a JSONArray whose
+     * opening brace or bracket has just been read, up to and including the
+     * matching closing one. Nested objects and arrays are kept on an explicit
+     * stack instead of being parsed by recursive constructor calls, and each
+     * is added to its parent when it is closed, as the constructors would.
+     * @param root An empty JSONObject or JSONArray.
+     * @throws JSONException If there is a syntax error, or the nesting is
+     *  deeper than the limit.
+     */
+    void parse(Object root) throws JSONException {
+        Object container = root;
+        Object[] containers = null;
+        String[] keys = null;
+        int depth = 0;
+        boolean close = false;
+        for (;;) {
+            if (!close) {
+                char c = this.nextClean();
+                String key = null;
+                if (container instanceof JSONObject) {
+                    if (c == 0) {
+                        throw this.syntaxError("A JSONObject text must end with '}'");
+                    }
+                    if (c == '}') {
+                        close = true;
+                    } else {
+                        this.back();
+                        key = this.nextKey();
+                        if (this.nextClean() != ':') {
+                            throw this.syntaxError("Expected a ':' after a key");
+                        }
+                        c = this.nextClean();
+                    }
+                } else if (c == ']') {
+                    close = true;
+                }
+                if (!close) {
+                    if (c == '{' || c == '[') {
+                        if (depth + 1 >= this.maxDepth) {
+                            throw this.syntaxError("Nesting too deep");
+                        }
+                        if (containers == null) {
+                            containers = new Object[16];
+                            keys = new String[16];
+                        } else if (depth == containers.length) {
+                            containers = Arrays.copyOf(containers, depth * 2);
+                            keys = Arrays.copyOf(keys, depth * 2);
+                        }
+                        containers[depth] = container;
+                        keys[depth] = key;
+                        depth += 1;
+                        container = c == '{' ? new JSONObject() : new JSONArray();
+                        continue;
+                    }
+                    this.back();
+                    Object value = key == null && c == ','
+                            ? JSONObject.NULL
+                            : this.nextValue();
+                    add(container, key, value);
+                    close = this.nextCloses(container);
+                }
+            }
+            if (close) {
+                if (depth == 0) {
+                    return;
+                }
+                Object child = container;
+                depth -= 1;
+                container = containers[depth];
+                containers[depth] = null;
+                add(container, keys[depth], child);
+                close = this.nextCloses(container);
+            }
+        }
+    }
 
-        string = sb.toString().trim();
-        if ("".equals(string)) {
+
+    private static void add(Object container, String key, Object value)
+            throws JSONException {
+        if (container instanceof JSONObject) {
+            ((JSONObject) container).putOnce(key, value);
+        } else {
+            ((JSONArray) container).add(value);
+        }
+    }
+
+
+    /**
+     * Read the separator after a member or element.
+     * @return true if it closes the container, false for a comma.
+     */
+    private boolean nextCloses(Object container) throws JSONException {
+        if (container instanceof JSONObject) {
+            switch (this.nextClean()) {
+            case ';':
+            case ',':
+                return false;
+            case '}':
+                return true;
+            default:
+                throw this.syntaxError("Expected a ',' or '}'");
+            }
+        }
+        switch (this.nextClean()) {
+        case ',':
+            return false;
+        case ']':
+            return true;
+        default:
+            throw this.syntaxError("Expected a ',' or ']'");
+        }
+    }
+
+
+    /**
+     * Skip the next value without building it. A string is scanned for its
+     * closing quote, an object or array is skipped by matching brackets, and
+     * unquoted text up to the next delimiter. Only the brackets and quotes
+     * are checked, not the syntax inside a skipped object or array.
+     * @throws JSONException If a string or bracket is not closed, or there
+     *  is no value.
+     */
+    public void skipValue() throws JSONException {
+        char c = this.nextClean();
+        switch (c) {
+        case '"':
+        case '\'':
+            this.skipString(c);
+            return;
+        case '{':
+        case '[':
+            this.skipContainer(c);
+            return;
+        }
+        if (JSONScanner.isDelimiter(c)) {
+            this.back();
             throw this.syntaxError("Missing value");
         }
-        return JSONObject.stringToValue(string);
+        for (;;) {
+            char[] buffer = this.buffer;
+            int limit = this.limit;
+            int p = this.position;
+            while (p < limit && !JSONScanner.isDelimiter(buffer[p])) {
+                p += 1;
+            }
+            this.position = p;
+            if (p < limit || !this.fill()) {
+                return;
+            }
+        }
+    }
+
+
+    /**
+     * Read up to and including the next <code>a</code> or <code>b</code>,
+     * appending the characters before it to a StringBuilder. Runs of other
+     * characters are copied straight out of the buffer.
+     * @param sb The StringBuilder, or null to skip the characters.
+     * @return a or b, or 0 if the source ended (or has a NUL) first.
+     */
+    char nextRun(StringBuilder sb, char a, char b) throws JSONException {
+        for (;;) {
+            char[] buffer = this.buffer;
+            int limit = this.limit;
+            int start = this.position;
+            int p = start;
+            while (p < limit) {
+                char c = buffer[p];
+                if (c == a || c == b || c == 0) {
+                    break;
+                }
+                p += 1;
+            }
+            if (sb != null) {
+                sb.append(buffer, start, p - start);
+            }
+            this.position = p;
+            char c = this.next();
+            if (c == a || c == b || c == 0) {
+                return c;
+            }
+            if (sb != null) {
+                sb.append(c);
+            }
+        }
+    }
+
+
+    /**
+     * Skip the rest of a string whose opening quote has been read.
+     */
+    private void skipString(char quote) throws JSONException {
+        for (;;) {
+            char[] buffer = this.buffer;
+            int limit = this.limit;
+            int p = this.position;
+            while (p < limit) {
+                char c = buffer[p];
+                if (c == quote || c == '\\' || c == '\n' || c == '\r' ||
+                        c == 0) {
+                    break;
+                }
+                p += 1;
+            }
+            this.position = p;
+            char c = this.next();
+            if (c == quote) {
+                return;
+            }
+            if (c == '\\') {
+                this.next();
+            } else if (c == 0 || c == '\n' || c == '\r') {
+                throw this.syntaxError("Unterminated string");
+            }
+        }
+    }
+
+
+    /**
+     * Skip the rest of an object or array whose opening bracket has been
+     * read. A quote only begins a string where a key or value begins, as in
+     * {@link JSONScanner#skipValue(char[], int, int)}.
+     */
+    void skipContainer(char open) throws JSONException {
+        int depth = 1;
+        int state = JSONScanner.VALUE;
+        for (;;) {
+
+// Runs of unquoted text, or of whitespace between values, leave the state as
+// it is.
+
+            char[] buffer = this.buffer;
+            int limit = this.limit;
+            int p = this.position;
+            if (state == JSONScanner.TEXT) {
+                while (p < limit && buffer[p] >= ' '
+                        && !JSONScanner.isDelimiter(buffer[p])) {
+                    p += 1;
+                }
+            } else {
+                while (p < limit && buffer[p] <= ' ' && buffer[p] != 0) {
+                    p += 1;
+                }
+            }
+            this.position = p;
+            char c = this.next();
+            switch (c) {
+            case 0:
+                if (this.end()) {
+                    throw this.syntaxError(open == '{'
+                            ? "A JSONObject text must end with '}'"
+                            : "Expected a ',' or ']'");
+                }
+                state = JSONScanner.next(state, c);
+                break;
+            case '"':
+            case '\'':
+                if (c == '\'' && state == JSONScanner.TEXT) {
+                    break;
+                }
+                if (state != JSONScanner.VALUE) {
+                    throw this.syntaxError(open == '{'
+                            ? "Expected a ',' or '}'"
+                            : "Expected a ',' or ']'");
+                }
+                this.skipString(c);
+                state = JSONScanner.AFTER;
+                break;
+            case '{':
+            case '[':
+                depth += 1;
+                state = JSONScanner.VALUE;
+                break;
+            case '}':
+            case ']':
+                depth -= 1;
+                if (depth == 0) {
+                    return;
+                }
+                state = JSONScanner.AFTER;
+                break;
+            case ',':
+            case ':':
+            case ';':
+                state = JSONScanner.VALUE;
+                break;
+            case '=':
+                state = JSONScanner.VALUE;
+                if (this.next() != '>') {
+                    this.back();
+                }
+                break;
+            default:
+                state = JSONScanner.next(state, c);
+            }
+        }
     }
 
 
@@ -397,29 +1005,59 @@ public class JSONTokener {
      * @param to A character to skip to.
      * @return The requested character, or zero if the requested character
      * is not found.
+     * @throws JSONException If the requested character is not found within
+     * a million characters of a Reader, which are all that can be skipped
+     * back over.
      */
     public char skipTo(char to) throws JSONException {
-        char c;
-        try {
-            long startIndex = this.index;
-            long startCharacter = this.character;
-            long startLine = this.line;
-            this.reader.mark(1000000);
-            do {
-                c = this.next();
-                if (c == 0) {
-                    this.reader.reset();
-                    this.index = startIndex;
-                    this.character = startCharacter;
-                    this.line = startLine;
+        int start = this.position;
+        for (;;) {
+            char[] buffer = this.buffer;
+            int limit = this.limit;
+            int p = this.position;
+            while (p < limit) {
+                char c = buffer[p];
+                if (c == to) {
+                    this.position = p;
+                    this.usePrevious = false;
                     return c;
                 }
-            } while (c != to);
-        } catch (IOException exception) {
-            throw new JSONException(exception);
+                if (c == 0) {
+                    return this.skipBack(start);
+                }
+                p += 1;
+            }
+            this.position = p;
+            if (start >= 0 && !this.exhausted && p - start >= SKIP_LIMIT) {
+                start = -1;
+            }
+            if (start < 0) {
+                if (!this.fill()) {
+                    return this.skipBack(start);
+                }
+            } else {
+                long base = this.offset;
+                boolean filled = this.fill(start);
+                start -= (int) (this.offset - base);
+                if (!filled) {
+                    return this.skipBack(start);
+                }
+            }
         }
-        this.back();
-        return c;
+    }
+
+
+    /**
+     * Go back to where skipTo started, unless that has been dropped from the
+     * window.
+     */
+    private char skipBack(int start) throws JSONException {
+        if (start < 0) {
+            throw new JSONException("Unable to skip back more than "
+                    + SKIP_LIMIT + " characters");
+        }
+        this.position = start;
+        return 0;
     }
 
 
@@ -440,7 +1078,21 @@ public class JSONTokener {
      * @return " at {index} [character {character} line {line}]"
      */
     public String toString() {
-        return " at " + this.index + " [character " + this.character + " line " +
-            this.line + "]";
+        long character = this.character;
+        long line = this.line;
+        char previous = this.previous;
+        for (int i = 0; i < this.position; i += 1) {
+            this.track(this.buffer[i]);
+        }
+        if (this.pastEnd) {
+            this.track((char) 0);
+        }
+        String string = " at " + (this.offset + this.position +
+                (this.pastEnd ? 1 : 0)) + " [character " + this.character +
+                " line " + this.line + "]";
+        this.character = character;
+        this.line = line;
+        this.previous = previous;
+        return string;
     }
 }
@@ -53,6 +53,11 @@ SOFTWARE.
  * you. Objects and arrays can be nested up to 20 levels deep.
  * <p>
  * This can sometimes be easier than using a JSONObject to build a string.
+ * <p>
+ * By default every key is checked against the earlier keys of its object,
+ * which keeps all the keys of the open objects in memory. To stream a very
+ * large object with constant memory, construct the JSONWriter with
+ * <code>checkKeys</code> false.
  * @author JSON.org
  * @version 2011-11-24
  */
@@ -76,9 +81,20 @@ public class JSONWriter {
     protected char mode;
 
     /**
-     * The object/array stack.
+     * Whether keys are checked for duplicates.
+     */
+    private final boolean checkKeys;
+
+    /**
+     * The object/array stack. An array is null, an object is the set of its
+     * keys, or NO_KEYS if keys are not checked.
      */
-    private final JSONObject stack[];
+    private final KeySet stack[];
+
+    /**
+     * The stack entry of an object whose keys are not checked.
+     */
+    private static final KeySet NO_KEYS = new KeySet();
 
     /**
      * The stack top index. A value of 0 indicates that the stack is empty.
@@ -94,9 +110,20 @@ public class JSONWriter {
      * Make a fresh JSONWriter. It can be used to build one JSON text.
      */
     public JSONWriter(Writer w) {
+        this(w, true);
+    }
+
+    /**
+     * Make a fresh JSONWriter. It can be used to build one JSON text.
+     * @param w The writer that will receive the output.
+     * @param checkKeys Whether to throw on a duplicate key. Checking keeps
+     *  the keys of every open object in memory.
+     */
+    public JSONWriter(Writer w, boolean checkKeys) {
         this.comma = false;
         this.mode = 'i';
-        this.stack = new JSONObject[maxdepth];
+        this.checkKeys = checkKeys;
+        this.stack = new KeySet[maxdepth];
         this.top = 0;
         this.writer = w;
     }
@@ -104,10 +131,11 @@ public class JSONWriter {
     /**
      * Append a value.
      * @param string A string value.
+     * @param quote Whether to write the string quoted, or as JSON text.
      * @return this
      * @throws JSONException If the value is out of sequence.
      */
-    private JSONWriter append(String string) throws JSONException {
+    private JSONWriter append(String string, boolean quote) throws JSONException {
         if (string == null) {
             throw new JSONException("Null pointer");
         }
@@ -116,7 +144,11 @@ public class JSONWriter {
                 if (this.comma && this.mode == 'a') {
                     this.writer.write(',');
                 }
-                this.writer.write(string);
+                if (quote) {
+                    JSONObject.quote(string, this.writer);
+                } else {
+                    this.writer.write(string);
+                }
             } catch (IOException e) {
                 throw new JSONException(e);
             }
@@ -141,7 +173,7 @@ public class JSONWriter {
     public JSONWriter array() throws JSONException {
         if (this.mode == 'i' || this.mode == 'o' || this.mode == 'a') {
             this.push(null);
-            this.append("[");
+            this.append("[", false);
             this.comma = false;
             return this;
         }
@@ -205,11 +237,13 @@ public class JSONWriter {
         }
         if (this.mode == 'k') {
             try {
-                this.stack[this.top - 1].putOnce(string, Boolean.TRUE);
+                if (this.checkKeys && !this.stack[this.top - 1].add(string)) {
+                    throw new JSONException("Duplicate key \"" + string + "\"");
+                }
                 if (this.comma) {
                     this.writer.write(',');
                 }
-                this.writer.write(JSONObject.quote(string));
+                JSONObject.quote(string, this.writer);
                 this.writer.write(':');
                 this.comma = false;
                 this.mode = 'o';
@@ -236,8 +270,8 @@ public class JSONWriter {
             this.mode = 'o';
         }
         if (this.mode == 'o' || this.mode == 'a') {
-            this.append("{");
-            this.push(new JSONObject());
+            this.append("{", false);
+            this.push(this.checkKeys ? new KeySet() : NO_KEYS);
             this.comma = false;
             return this;
         }
@@ -272,7 +306,7 @@ public class JSONWriter {
      * @param jo The scope to open.
      * @throws JSONException If nesting is too deep.
      */
-    private void push(JSONObject jo) throws JSONException {
+    private void push(KeySet jo) throws JSONException {
         if (this.top >= maxdepth) {
             throw new JSONException("Nesting too deep.");
         }
@@ -290,7 +324,7 @@ public class JSONWriter {
      * @throws JSONException
      */
     public JSONWriter value(boolean b) throws JSONException {
-        return this.append(b ? "true" : "false");
+        return this.append(b ? "true" : "false", false);
     }
 
     /**
@@ -310,7 +344,7 @@ public class JSONWriter {
      * @throws JSONException
      */
     public JSONWriter value(long l) throws JSONException {
-        return this.append(Long.toString(l));
+        return this.append(Long.toString(l), false);
     }
 
 
@@ -322,6 +356,59 @@ public class JSONWriter {
      * @throws JSONException If the value is out of sequence.
      */
     public JSONWriter value(Object object) throws JSONException {
-        return this.append(JSONObject.valueToString(object));
+        if (object instanceof String) {
+            return this.append((String) object, true);
+        }
+        return this.append(JSONObject.valueToString(object), false);
+    }
+
+
+    /**
+     * The keys of an object, in an open addressing table that stores only
+     * the key references.
+     */
+    private static final class KeySet {
+        private String[] keys = new String[8];
+        private int size;
+
+        /**
+         * Add a key.
+         * @param key A key string.
+         * @return false if the key was already in the set.
+         */
+        boolean add(String key) {
+            String[] keys = this.keys;
+            int mask = keys.length - 1;
+            int i = key.hashCode() & mask;
+            for (String k = keys[i]; k != null; k = keys[i]) {
+                if (k.equals(key)) {
+                    return false;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            this.size += 1;
+            if (this.size * 2 > keys.length) {
+                this.grow();
+            }
+            return true;
+        }
+
+        private void grow() {
+            String[] old = this.keys;
+            String[] keys = new String[old.length * 2];
+            int mask = keys.length - 1;
+            for (int j = 0; j < old.length; j += 1) {
+                String key = old[j];
+                if (key != null) {
+                    int i = key.hashCode() & mask;
+                    while (keys[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = key;
+                }
+            }
+            this.keys = keys;
+        }
     }
 }
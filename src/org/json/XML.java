@@ -24,6 +24,7 @@ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
 SOFTWARE.
 */
 
+import java.util.Arrays;
 import java.util.Iterator;
 
 /**
@@ -126,14 +127,32 @@ public class XML {
      * @return true if the close tag is processed.
      * @throws JSONException
      */
-    private static boolean parse(XMLTokener x, JSONObject context,
-                                 String name) throws JSONException {
+    static boolean parse(XMLTokener x, JSONObject context,
+                         String name) throws JSONException {
+        Object token = x.nextToken();
+        if (token instanceof String) {
+            parseElement(x, context, (String)token);
+            return false;
+        }
+        return parseMarkup(x, context, name, token);
+    }
+
+
+    /**
+     * Scan the markup after a <code>&lt;</code> that is not an open tag,
+     * attaching any CDATA content to the context.
+     * @param x       The XMLTokener containing the source string.
+     * @param context The JSONObject that will include the new material.
+     * @param name    The tag name.
+     * @param token   The token after the <code>&lt;</code>.
+     * @return true if the close tag is processed.
+     * @throws JSONException
+     */
+    private static boolean parseMarkup(XMLTokener x, JSONObject context,
+                         String name, Object token) throws JSONException {
         char       c;
         int        i;
-        JSONObject jsonobject = null;
         String     string;
-        String     tagName;
-        Object     token;
 
 // Test for and skip past these forms:
 //      <!-- ... -->
@@ -145,8 +164,6 @@ public class XML {
 //      <=
 //      <<
 
-        token = x.nextToken();
-
 // <!
 
         if (token == BANG) {
@@ -204,16 +221,37 @@ public class XML {
             }
             return true;
 
-        } else if (token instanceof Character) {
+        } else {
             throw x.syntaxError("Misshaped tag");
+        }
+    }
 
-// Open tag <
 
-        } else {
-            tagName = (String)token;
-            token = null;
-            jsonobject = new JSONObject();
-            for (;;) {
+    /**
+     * Scan the attributes and content of an element whose open tag name has
+     * been read, attaching it to the context. Nested elements are kept on an
+     * explicit stack rather than parsed by recursion, so the nesting is only
+     * limited by the tokener's {@link JSONTokener#getMaxDepth() maximum
+     * depth}, counted from this element.
+     * @param x       The XMLTokener positioned after the tag name.
+     * @param context The JSONObject that will include the new material.
+     * @param tagName The tag name.
+     * @throws JSONException
+     */
+    static void parseElement(XMLTokener x, JSONObject context,
+                             String tagName) throws JSONException {
+        String     string;
+        Object     token;
+        JSONObject jsonobject;
+        Object[]   stack = null;
+        int        depth = 0;
+        boolean    content = false;
+        boolean    closed = false;
+
+        token = null;
+        jsonobject = new JSONObject();
+        for (;;) {
+            if (!content) {
                 if (token == null) {
                     token = x.nextToken();
                 }
@@ -246,46 +284,76 @@ public class XML {
                     } else {
                         context.accumulate(tagName, "");
                     }
-                    return false;
+                    closed = true;
 
 // Content, between <...> and </...>
 
                 } else if (token == GT) {
-                    for (;;) {
-                        token = x.nextContent();
-                        if (token == null) {
-                            if (tagName != null) {
-                                throw x.syntaxError("Unclosed tag " + tagName);
-                            }
-                            return false;
-                        } else if (token instanceof String) {
-                            string = (String)token;
-                            if (string.length() > 0) {
-                                jsonobject.accumulate("content",
-                                        XML.stringToValue(string));
-                            }
+                    content = true;
+                } else {
+                    throw x.syntaxError("Misshaped tag");
+                }
+            } else {
+                token = x.nextContent();
+                if (token == null) {
+                    throw x.syntaxError("Unclosed tag " + tagName);
+                } else if (token instanceof String) {
+                    string = (String)token;
+                    if (string.length() > 0) {
+                        jsonobject.accumulate("content",
+                                XML.stringToValue(string));
+                    }
+                } else if (token == LT) {
+                    token = x.nextToken();
 
-// Nested element
-
-                        } else if (token == LT) {
-                            if (parse(x, jsonobject, tagName)) {
-                                if (jsonobject.length() == 0) {
-                                    context.accumulate(tagName, "");
-                                } else if (jsonobject.length() == 1 &&
-                                       jsonobject.opt("content") != null) {
-                                    context.accumulate(tagName,
-                                            jsonobject.opt("content"));
-                                } else {
-                                    context.accumulate(tagName, jsonobject);
-                                }
-                                return false;
-                            }
+// Nested element: save this one and scan the new one's attributes
+
+                    if (token instanceof String) {
+                        if (depth + 1 >= x.getMaxDepth()) {
+                            throw x.syntaxError("Nesting too deep");
                         }
+                        if (stack == null) {
+                            stack = new Object[32];
+                        } else if (depth * 2 == stack.length) {
+                            stack = Arrays.copyOf(stack, stack.length * 2);
+                        }
+                        stack[depth * 2] = context;
+                        stack[depth * 2 + 1] = tagName;
+                        depth += 1;
+                        context = jsonobject;
+                        tagName = (String)token;
+                        jsonobject = new JSONObject();
+                        token = null;
+                        content = false;
+                    } else if (parseMarkup(x, jsonobject, tagName, token)) {
+                        if (jsonobject.length() == 0) {
+                            context.accumulate(tagName, "");
+                        } else if (jsonobject.length() == 1 &&
+                               jsonobject.opt("content") != null) {
+                            context.accumulate(tagName,
+                                    jsonobject.opt("content"));
+                        } else {
+                            context.accumulate(tagName, jsonobject);
+                        }
+                        closed = true;
                     }
-                } else {
-                    throw x.syntaxError("Misshaped tag");
                 }
             }
+
+// The element is complete: go back to the content of its parent
+
+            if (closed) {
+                if (depth == 0) {
+                    return;
+                }
+                depth -= 1;
+                jsonobject = context;
+                context = (JSONObject)stack[depth * 2];
+                tagName = (String)stack[depth * 2 + 1];
+                stack[depth * 2] = null;
+                content = true;
+                closed = false;
+            }
         }
     }
 
@@ -349,8 +417,20 @@ public class XML {
      * @throws JSONException
      */
     public static JSONObject toJSONObject(String string) throws JSONException {
+        return toJSONObject(new XMLTokener(string));
+    }
+
+
+    /**
+     * Convert the XML text of an XMLTokener into a JSONObject, as
+     * {@link #toJSONObject(String)} does. Use this form to read a Reader, or
+     * to change the tokener's maximum nesting depth.
+     * @param x An XMLTokener of the XML source text.
+     * @return A JSONObject containing the structured data from the XML text.
+     * @throws JSONException
+     */
+    public static JSONObject toJSONObject(XMLTokener x) throws JSONException {
         JSONObject jo = new JSONObject();
-        XMLTokener x = new XMLTokener(string);
         while (x.more() && x.skipPast("<")) {
             parse(x, jo, null);
         }
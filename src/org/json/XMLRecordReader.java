@@ -0,0 +1,158 @@
+package org.json;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * XMLRecordReader converts the repeating elements of a large XML document to
+ * JSON one at a time, as the document is read. The elements to convert are
+ * named by a path of tag names from the root, such as
+ * <code>feed/entry</code> or <code>soap:Envelope/soap:Body/*&#47;item</code>,
+ * where <code>*</code> matches any tag name. Everything outside those
+ * elements is skipped without building it, so memory depends only on the
+ * size of one record and the nesting depth, not on the size of the document.
+ * <pre>
+ * XMLRecordReader records = new XMLRecordReader(new XMLTokener(reader), "feed/entry");
+ * JSONObject record;
+ * while ((record = records.next()) != null) {
+ *     JSONObject entry = record.getJSONObject("entry");
+ * }
+ * </pre>
+ * Each record is the JSONObject that {@link XML#toJSONObject(String)} would
+ * make from the text of the element alone, with the tag name as its only
+ * key. Elements that match the path inside a record are part of that record
+ * and are not returned on their own.
+ *
+ * @version 2026-10-18
+ */
+public class XMLRecordReader {
+    private final XMLTokener x;
+
+    /**
+     * The tag names of the path.
+     */
+    private final String[] path;
+
+    /**
+     * The names of the open elements.
+     */
+    private final List<String> open = new ArrayList<String>();
+
+    /**
+     * How many of the open elements, from the root, match the path.
+     */
+    private int matched;
+
+    /**
+     * Construct an XMLRecordReader.
+     *
+     * @param x
+     *            An XMLTokener positioned at the start of a document.
+     * @param path
+     *            The tag names from the root element to the record element,
+     *            separated by <code>/</code>.
+     * @throws JSONException
+     *             If the path is empty or has an empty name.
+     */
+    public XMLRecordReader(XMLTokener x, String path) throws JSONException {
+        this.x = x;
+        this.path = path.split("/", -1);
+        for (int i = 0; i < this.path.length; i += 1) {
+            if (this.path[i].length() == 0) {
+                throw new JSONException("Empty name in path " + path);
+            }
+        }
+    }
+
+    private boolean matches(int depth, String name) {
+        return this.matched == depth && depth < this.path.length
+                && (this.path[depth].equals("*") || this.path[depth].equals(name));
+    }
+
+    /**
+     * Read up to the next record element and convert it.
+     *
+     * @return A JSONObject with the tag name of the element as its key, or
+     *         null at the end of the document.
+     * @throws JSONException
+     *             If the XML is not well formed.
+     */
+    public JSONObject next() throws JSONException {
+        XMLTokener x = this.x;
+        for (;;) {
+            if (!x.skipPast("<")) {
+                if (!this.open.isEmpty()) {
+                    throw x.syntaxError("Unclosed tag "
+                            + this.open.get(this.open.size() - 1));
+                }
+                return null;
+            }
+            char c = x.next();
+            if (c == '!' || c == '?') {
+
+// Comments, CDATA, DOCTYPE and processing instructions are skipped the way
+// XML.toJSONObject skips them.
+
+                x.back();
+                XML.parse(x, new JSONObject(), null);
+                continue;
+            }
+            int depth = this.open.size();
+            if (c == '/') {
+                Object token = x.nextToken();
+                if (depth == 0) {
+                    throw x.syntaxError("Mismatched close tag " + token);
+                }
+                String name = this.open.get(depth - 1);
+                if (!name.equals(token)) {
+                    throw x.syntaxError("Mismatched " + name + " and " + token);
+                }
+                if (x.nextToken() != XML.GT) {
+                    throw x.syntaxError("Misshaped close tag");
+                }
+                this.open.remove(depth - 1);
+                if (this.matched == depth) {
+                    this.matched -= 1;
+                }
+                continue;
+            }
+            x.back();
+            Object token = x.nextToken();
+            if (!(token instanceof String)) {
+                throw x.syntaxError("Misshaped tag");
+            }
+            String name = (String) token;
+            if (depth == this.path.length - 1 && this.matches(depth, name)) {
+                JSONObject record = new JSONObject();
+                XML.parseElement(x, record, name);
+                return record;
+            }
+
+// Skip the attributes of an element outside the records.
+
+            for (;;) {
+                token = x.nextToken();
+                if (token == XML.SLASH) {
+                    if (x.nextToken() != XML.GT) {
+                        throw x.syntaxError("Misshaped tag");
+                    }
+                    break;
+                }
+                if (token == XML.GT) {
+                    if (this.matches(depth, name)) {
+                        this.matched += 1;
+                    }
+                    this.open.add(name);
+                    break;
+                }
+                if (token == XML.EQ) {
+                    if (!(x.nextToken() instanceof String)) {
+                        throw x.syntaxError("Missing value");
+                    }
+                } else if (token instanceof Character) {
+                    throw x.syntaxError("Misshaped tag");
+                }
+            }
+        }
+    }
+}
@@ -27,6 +27,11 @@ SOFTWARE.
 /**
  * The XMLTokener extends the JSONTokener to provide additional methods
  * for the parsing of XML texts.
+ * <p>
+ * Text, quoted values and CDATA are copied out of the source in runs up to
+ * the next markup or reference character, into a StringBuilder that the
+ * tokener reuses. The five predefined entities and decimal and hexadecimal
+ * character references are decoded without building their names.
  * @author JSON.org
  * @version 2014-05-03
  */
@@ -34,7 +39,9 @@ public class XMLTokener extends JSONTokener {
 
 
    /** The table of entity values. It initially contains Character values for
-    * amp, apos, gt, lt, quot.
+    * amp, apos, gt, lt, quot. Those five and character references are
+    * always decoded by the tokener; other names, in lower case, are looked
+    * up here.
     */
    public static final java.util.HashMap<String, Character> entity;
 
@@ -47,6 +54,17 @@ public class XMLTokener extends JSONTokener {
        entity.put("quot", XML.QUOT);
    }
 
+    /**
+     * The text being built by nextContent, nextToken or nextCDATA.
+     */
+    private final StringBuilder sb = new StringBuilder();
+
+    /**
+     * The name of the last entity read, in lower case.
+     */
+    private char[] name = new char[8];
+    private int nameLength;
+
     /**
      * Construct an XMLTokener from a string.
      * @param s A source string.
@@ -55,6 +73,14 @@ public class XMLTokener extends JSONTokener {
         super(s);
     }
 
+    /**
+     * Construct an XMLTokener from a Reader.
+     * @param reader A reader.
+     */
+    public XMLTokener(java.io.Reader reader) {
+        super(reader);
+    }
+
     /**
      * Get the text in the CDATA block.
      * @return The string up to the <code>]]&gt;</code>.
@@ -63,19 +89,24 @@ public class XMLTokener extends JSONTokener {
     public String nextCDATA() throws JSONException {
         char         c;
         int          i;
-        StringBuilder sb = new StringBuilder();
+        StringBuilder sb = this.sb;
+        sb.setLength(0);
         for (;;) {
-            c = next();
+            c = nextRun(sb, ']', ']');
+            while (c == ']') {
+                sb.append(c);
+                c = next();
+            }
             if (end()) {
                 throw syntaxError("Unclosed CDATA");
             }
-            sb.append(c);
-            i = sb.length() - 3;
-            if (i >= 0 && sb.charAt(i) == ']' &&
-                          sb.charAt(i + 1) == ']' && sb.charAt(i + 2) == '>') {
+            i = sb.length() - 2;
+            if (c == '>' && i >= 0 && sb.charAt(i) == ']' &&
+                          sb.charAt(i + 1) == ']') {
                 sb.setLength(i);
                 return sb.toString();
             }
+            sb.append(c);
         }
     }
 
@@ -101,44 +132,165 @@ public class XMLTokener extends JSONTokener {
         if (c == '<') {
             return XML.LT;
         }
-        sb = new StringBuilder();
+        sb = this.sb;
+        sb.setLength(0);
         for (;;) {
             if (c == '<' || c == 0) {
                 back();
-                return sb.toString().trim();
+                return trim(sb);
             }
             if (c == '&') {
-                sb.append(nextEntity(c));
+                appendEntity(sb, c);
             } else {
                 sb.append(c);
             }
-            c = next();
+            c = nextRun(sb, '<', '&');
+        }
+    }
+
+
+    /**
+     * Get the text of a StringBuilder without leading and trailing
+     * whitespace, as String.trim() would.
+     */
+    private static String trim(StringBuilder sb) {
+        int start = 0;
+        int end = sb.length();
+        while (start < end && sb.charAt(start) <= ' ') {
+            start += 1;
+        }
+        while (end > start && sb.charAt(end - 1) <= ' ') {
+            end -= 1;
         }
+        return sb.substring(start, end);
     }
 
 
     /**
      * Return the next entity. These entities are translated to Characters:
-     *     <code>&amp;  &apos;  &gt;  &lt;  &quot;</code>.
+     *     <code>&amp;  &apos;  &gt;  &lt;  &quot;</code>, and so are the
+     * character references <code>&amp;#nnnn;</code> and
+     * <code>&amp;#xhhhh;</code> (a String of two surrogates for a character
+     * above U+FFFF). Other names are looked up in the {@link #entity} table.
      * @param ampersand An ampersand character.
      * @return  A Character or an entity String if the entity is not recognized.
      * @throws JSONException If missing ';' in XML entity.
      */
     public Object nextEntity(char ampersand) throws JSONException {
-        StringBuilder sb = new StringBuilder();
+        int c = nextEntityCodePoint();
+        if (c >= 0) {
+            return c < Character.MIN_SUPPLEMENTARY_CODE_POINT
+                    ? Character.valueOf((char)c)
+                    : new String(Character.toChars(c));
+        }
+        String string = new String(this.name, 0, this.nameLength);
+        Object object = entity.get(string);
+        return object != null ? object : ampersand + string + ";";
+    }
+
+
+    /**
+     * Append the next entity to a StringBuilder, as nextEntity would return
+     * it.
+     */
+    private void appendEntity(StringBuilder sb, char ampersand)
+            throws JSONException {
+        int c = nextEntityCodePoint();
+        if (c >= 0) {
+            sb.appendCodePoint(c);
+            return;
+        }
+        String string = new String(this.name, 0, this.nameLength);
+        Object object = entity.get(string);
+        if (object != null) {
+            sb.append(object);
+        } else {
+            sb.append(ampersand).append(string).append(';');
+        }
+    }
+
+
+    /**
+     * Read the name of an entity up to its ';' into the name buffer.
+     * @return The character that a predefined entity or a character
+     *  reference stands for, or -1 for any other name.
+     */
+    private int nextEntityCodePoint() throws JSONException {
+        char[] name = this.name;
+        int length = 0;
         for (;;) {
             char c = next();
             if (Character.isLetterOrDigit(c) || c == '#') {
-                sb.append(Character.toLowerCase(c));
+                if (length == name.length) {
+                    name = java.util.Arrays.copyOf(name, length * 2);
+                    this.name = name;
+                }
+                name[length] = Character.toLowerCase(c);
+                length += 1;
             } else if (c == ';') {
                 break;
             } else {
-                throw syntaxError("Missing ';' in XML entity: &" + sb);
+                this.nameLength = length;
+                throw syntaxError("Missing ';' in XML entity: &" +
+                        new String(name, 0, length));
             }
         }
-        String string = sb.toString();
-        Object object = entity.get(string);
-        return object != null ? object : ampersand + string + ";";
+        this.nameLength = length;
+        switch (length) {
+        case 2:
+            if (name[1] == 't') {
+                if (name[0] == 'l') {
+                    return '<';
+                }
+                if (name[0] == 'g') {
+                    return '>';
+                }
+            }
+            break;
+        case 3:
+            if (name[0] == 'a' && name[1] == 'm' && name[2] == 'p') {
+                return '&';
+            }
+            break;
+        case 4:
+            if (name[0] == 'a' && name[1] == 'p' && name[2] == 'o' &&
+                    name[3] == 's') {
+                return '\'';
+            }
+            if (name[0] == 'q' && name[1] == 'u' && name[2] == 'o' &&
+                    name[3] == 't') {
+                return '"';
+            }
+            break;
+        }
+        if (length < 2 || name[0] != '#') {
+            return -1;
+        }
+
+// &#nnnn; or &#xhhhh; naming a character that XML allows
+
+        int radix = name[1] == 'x' ? 16 : 10;
+        int i = radix == 16 ? 2 : 1;
+        if (i == length) {
+            return -1;
+        }
+        int code = 0;
+        for (; i < length; i += 1) {
+            int digit = name[i] <= 'f' ? Character.digit(name[i], radix) : -1;
+            if (digit < 0) {
+                return -1;
+            }
+            code = code * radix + digit;
+            if (code > Character.MAX_CODE_POINT) {
+                return -1;
+            }
+        }
+        if (code < ' ' ? code == '\t' || code == '\n' || code == '\r'
+                : code < 0xD800 || (code >= 0xE000 && code <= 0xFFFD) ||
+                  code >= 0x10000) {
+            return code;
+        }
+        return -1;
     }
 
 
@@ -244,26 +396,24 @@ public class XMLTokener extends JSONTokener {
         case '"':
         case '\'':
             q = c;
-            sb = new StringBuilder();
+            sb = this.sb;
+            sb.setLength(0);
             for (;;) {
-                c = next();
+                c = nextRun(sb, q, '&');
                 if (c == 0) {
                     throw syntaxError("Unterminated string");
                 }
                 if (c == q) {
                     return sb.toString();
                 }
-                if (c == '&') {
-                    sb.append(nextEntity(c));
-                } else {
-                    sb.append(c);
-                }
+                appendEntity(sb, c);
             }
         default:
 
 // Name
 
-            sb = new StringBuilder();
+            sb = this.sb;
+            sb.setLength(0);
             for (;;) {
                 sb.append(c);
                 c = next();
@@ -305,6 +455,13 @@ public class XMLTokener extends JSONTokener {
         int j;
         int offset = 0;
         int length = to.length();
+
+        /* A single character is found by scanning the buffer in bulk. */
+
+        if (length == 1) {
+            c = to.charAt(0);
+            return c != 0 && nextRun(null, c, c) == c;
+        }
         char[] circle = new char[length];
 
         /*